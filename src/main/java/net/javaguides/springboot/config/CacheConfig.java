@@ -0,0 +1,14 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// @EnableCaching 을 main class 가 아닌 별도 설정에 두어야 @WebMvcTest 같은 slice test 에 적용되지 않는다.
+// cache 크기/TTL 은 application.properties 의 spring.cache.caffeine.spec 으로 설정한다.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // id -> Employee
+    public static final String EMPLOYEE_CACHE = "employees";
+}
@@ -0,0 +1,99 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/*
+server.compression.min-response-size 가 동작하도록
+- Tomcat 은 응답을 commit 할 때 압축 여부를 정하는데, Content-Length 를 모르면 크기와 관계없이 압축한다.
+- HttpMessageConverter(Jackson) 는 body 를 쓴 뒤 flush() 하므로 작은 응답도 Content-Length 없이 commit 된다.
+-> 동기 요청의 flush() 를 미룬다. 응답이 Tomcat buffer 안에 들어가면 끝날 때 Content-Length 가 붙고, 넘치면 그때 commit 된다.
+async 요청(export StreamingResponseBody, SSE)은 쓰는 대로 보내야 하므로 그대로 flush 한다.
+*/
+class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, new DeferredFlushResponse(request, response));
+    }
+
+    private static final class DeferredFlushResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        private ServletOutputStream outputStream;
+
+        private DeferredFlushResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream(), request);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) {
+                super.flushBuffer();
+            }
+        }
+    }
+
+    private static final class DeferredFlushOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private final HttpServletRequest request;
+
+        private DeferredFlushOutputStream(ServletOutputStream delegate, HttpServletRequest request) {
+            this.delegate = delegate;
+            this.request = request;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (request.isAsyncStarted()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeeDeleteResult;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.model.Employee;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+EmployeeService / EmployeeRepository 의 모든 method 호출을 기록한다.
+- employee.service, employee.repository (Timer) : method, signature, exception tag
+- employee.service.result.size, employee.repository.result.size (DistributionSummary) : 반환한 row 수, method, signature tag
+  (row 수를 알 수 없는 반환 타입의 method 는 기록하지 않는다.)
+- employee.service.errors, employee.repository.errors (Counter) : method, signature, exception tag
+signature 는 parameter 타입 목록 (예 : "(long,Set)") - overload(getEmployeeById 의 entity / ?fields= 조회 등)를 따로 기록한다.
+percentile 은 application.properties 의 management.metrics.distribution.* 로 설정한다.
+성공 경로의 meter 는 method 별로 한 번만 만들고 재사용한다. (호출마다 registry 조회 / tag 생성을 하지 않는다.)
+*/
+@Aspect
+@Component
+public class EmployeeMetricsAspect {
+
+    static final String SERVICE_METRIC = "employee.service";
+
+    static final String REPOSITORY_METRIC = "employee.repository";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public EmployeeMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* net.javaguides.springboot.service.EmployeeService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(SERVICE_METRIC, joinPoint);
+    }
+
+    @Around("execution(* net.javaguides.springboot.repository.EmployeeRepository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(REPOSITORY_METRIC, joinPoint);
+    }
+
+    private Object record(String metric, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.computeIfAbsent(method, key -> new MethodMeters(metric, key));
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            methodMeters.recordError(e, System.nanoTime() - start);
+            throw e;
+        }
+        methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (method.getReturnType() != void.class) {
+            long size = resultSize(result);
+            if (size >= 0) {
+                methodMeters.recordResultSize(size);
+            }
+        }
+        return result;
+    }
+
+    // row 수를 알 수 있는 반환 타입만 기록한다. (Stream 등은 -1)
+    private static long resultSize(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            Optional<?> optional = (Optional<?>) result;
+            if (optional.isEmpty()) {
+                return 0;
+            }
+            // Optional<List<Employee>> 는 list 크기, Optional<Map> / Optional<Long> 처럼 값 하나인 경우는 row 하나
+            long size = resultSize(optional.get());
+            return size < 0 ? 1 : size;
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof EmployeePage) {
+            return ((EmployeePage<?>) result).getContent().size();
+        }
+        if (result instanceof EmployeeLookupResult) {
+            return ((EmployeeLookupResult) result).getEmployees().size();
+        }
+        if (result instanceof EmployeeBatchResult) {
+            return ((EmployeeBatchResult) result).getCreated().size();
+        }
+        if (result instanceof EmployeeDeleteResult) {
+            return ((EmployeeDeleteResult) result).getDeleted();
+        }
+        if (result instanceof Employee) {
+            return 1;
+        }
+        return -1;
+    }
+
+    private final class MethodMeters {
+
+        private final String metric;
+
+        private final String method;
+
+        private final String signature;
+
+        private final Timer timer;
+
+        // 처음 row 수를 기록할 때 만든다. - row 수를 알 수 없는 method 는 빈 summary 를 남기지 않는다.
+        private volatile DistributionSummary resultSize;
+
+        private MethodMeters(String metric, Method method) {
+            this.metric = metric;
+            this.method = method.getName();
+            this.signature = Arrays.stream(method.getParameterTypes())
+                    .map(Class::getSimpleName)
+                    .collect(Collectors.joining(",", "(", ")"));
+            this.timer = Timer.builder(metric)
+                    .tag("method", this.method)
+                    .tag("signature", signature)
+                    .tag("exception", "none")
+                    .register(meterRegistry);
+        }
+
+        // 동시에 처음 호출되어도 registry 는 같은 meter 를 돌려준다.
+        private void recordResultSize(long size) {
+            DistributionSummary summary = resultSize;
+            if (summary == null) {
+                summary = DistributionSummary.builder(metric + ".result.size")
+                        .tag("method", method)
+                        .tag("signature", signature)
+                        .baseUnit("rows")
+                        .register(meterRegistry);
+                resultSize = summary;
+            }
+            summary.record(size);
+        }
+
+        // 실패는 드물기 때문에 exception 별 meter 는 registry 에서 그때그때 찾는다.
+        private void recordError(Throwable e, long elapsedNanos) {
+            String exception = e.getClass().getSimpleName();
+            Timer.builder(metric)
+                    .tag("method", method)
+                    .tag("signature", signature)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            Counter.builder(metric + ".errors")
+                    .tag("method", method)
+                    .tag("signature", signature)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package net.javaguides.springboot.config;
+
+import java.util.function.Supplier;
+
+/*
+readOnly transaction 이라도 primary 에서 읽어야 하는 조회 - 결과를 여러 client 가 함께 쓰는 cache 에 넣는 조회
+replica 는 늦을 수 있으므로 다른 client 의 PUT 직후 replica 에서 읽은 이전 row 를 cache 에 넣으면 TTL 동안 그 값을 돌려준다.
+(read-your-writes cookie 는 쓴 client 만 보호한다.)
+replica 설정이 없으면 모든 조회가 primary 이므로 아무 영향이 없다.
+*/
+public final class PrimaryReads {
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> read) {
+        if (ReadWriteRoutingDataSource.isPrimaryOnly()) {
+            return read.get();
+        }
+        ReadWriteRoutingDataSource.usePrimary();
+        try {
+            return read.get();
+        } finally {
+            ReadWriteRoutingDataSource.clear();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+read/write splitting (employee.replica.enabled=true, application.properties 참고)
+- primary : spring.datasource.* + spring.datasource.hikari.* (쓰기, transaction 밖의 조회)
+- replica : employee.replica.datasource.* (Hikari 설정을 그대로 사용 - jdbc-url, maximum-pool-size ...)
+- @Transactional(readOnly = true) 인 service method 는 replica 에서 읽는다. (ReadWriteRoutingDataSource)
+- 쓰기 요청 직후의 조회는 primary 에서 읽는다. (ReadYourWritesFilter)
+reactive profile 은 ReactiveDataSourceConfig 의 DataSource 를 사용하므로 함께 쓰지 않는다.
+*/
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employee.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("employee.replica.datasource")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // JPA, JdbcTemplate 은 이 DataSource 를 사용한다.
+    // (primary / replica 는 BeanPostProcessor 가 proxy 로 감쌀 수 있으므로 DataSource type 으로 받는다.)
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${employee.replica.read-your-writes-window:5s}") Duration window) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+    }
+}
@@ -0,0 +1,48 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/*
+read/write splitting - 현재 transaction 이 readOnly 이면 replica, 그 외(쓰기 transaction, transaction 밖)는 primary 로 보낸다.
+transaction 시작 시점이 아니라 첫 statement 를 실행할 때 connection 을 가져와야 readOnly 여부를 알 수 있으므로
+LazyConnectionDataSourceProxy 로 감싸서 사용한다. (ReadWriteRoutingConfig)
+read-your-writes : usePrimary() 를 호출한 thread 는 readOnly transaction 도 primary 에서 읽는다. (ReadYourWritesFilter, PrimaryReads)
+*/
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    static void usePrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+
+    static boolean isPrimaryOnly() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    @Override
+    protected Target determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPrimaryOnly()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
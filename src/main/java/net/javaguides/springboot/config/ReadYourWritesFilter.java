@@ -0,0 +1,66 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/*
+read-your-writes - replica 지연 때문에 방금 POST / PUT 한 client 가 이전 값을 읽지 않도록
+- 쓰기 요청(GET/HEAD/OPTIONS 외)은 그 요청 안의 read 도 primary 에서 실행하고, 응답에 cookie 를 붙인다.
+- cookie 가 남아 있는 동안(window) 같은 client 의 read 요청은 primary 로 보낸다.
+cookie 는 body 가 쓰이기 전에 붙여야 하므로 요청 결과와 관계없이 붙인다. (실패한 쓰기 뒤에는 잠시 primary 를 읽을 뿐이다.)
+*/
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "employee-read-primary";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final int windowSeconds;
+
+    ReadYourWritesFilter(Duration window) {
+        this.windowSeconds = (int) Math.max(1, window.getSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, "1");
+            cookie.setPath("/");
+            cookie.setMaxAge(windowSeconds);
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+
+        if (write || hasCookie(request)) {
+            ReadWriteRoutingDataSource.usePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.clear();
+        }
+    }
+
+    private static boolean hasCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
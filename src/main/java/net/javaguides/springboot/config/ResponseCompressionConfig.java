@@ -0,0 +1,22 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/*
+응답 압축 (server.compression.*) - Tomcat 이 min-response-size 보다 작은 응답을 압축하지 않도록 (CompressionThresholdFilter)
+MockMvc 테스트는 Tomcat 을 거치지 않으므로 압축 여부와 관계없다.
+*/
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(value = "server.compression.enabled", havingValue = "true")
+public class ResponseCompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CompressionThresholdFilter> compressionThresholdFilter() {
+        return new FilterRegistrationBean<>(new CompressionThresholdFilter());
+    }
+}
@@ -0,0 +1,45 @@
+package net.javaguides.springboot.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/*
+실행 시간이 threshold 이상인 statement 만 WARN 으로 남긴다.
+bind parameter 값은 남기지 않고 개수만 남긴다. (값 formatting 비용, 개인정보)
+batch 는 statement 하나로 기록된다. (batch size = parameter set 수)
+*/
+class SlowQueryLogListener implements QueryExecutionListener {
+
+    static final String LOGGER_NAME = "employee.slow-query";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final long thresholdMillis;
+
+    SlowQueryLogListener(long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        if (elapsedMillis < thresholdMillis || !log.isWarnEnabled()) {
+            return;
+        }
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            int bindCount = queryInfo.getParametersList().stream().mapToInt(List::size).sum();
+            log.warn("slow query {} ms (success={}, batchSize={}, binds={}): {}", elapsedMillis, execInfo.isSuccess(),
+                    execInfo.getBatchSize(), bindCount, queryInfo.getQuery());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package net.javaguides.springboot.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+/*
+perf profile 의 SQL 로그 (application-perf.properties, logback-spring.xml 참고)
+- show-sql / bind parameter TRACE 대신 DataSource 를 proxy 로 감싸서 employee.slow-query.threshold-ms 보다 느린 statement 만 남긴다.
+- JPA 뿐 아니라 JdbcTemplate(batchInsert) 으로 실행하는 statement 도 포함된다.
+*/
+@Configuration
+@Profile("perf")
+public class SlowQueryLoggingConfig {
+
+    // static - BeanPostProcessor 는 다른 bean 보다 먼저 만들어져야 한다.
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${employee.slow-query.threshold-ms:200}") long thresholdMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // read/write routing proxy 는 감싸지 않는다. - 실제 pool(primary / replica)에서 한 번만 기록
+                if (!(bean instanceof DataSource) || bean instanceof DelegatingDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(new SlowQueryLogListener(thresholdMillis))
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/*
+Smile (Jackson 의 binary JSON) 요청/응답 - 서비스 간 호출용
+- Accept: application/x-jackson-smile 이면 Smile 로 응답하고, Content-Type: application/x-jackson-smile 요청 body 도 읽는다. (기본은 JSON)
+- 필드 이름과 짧은 문자열을 앞에서 나온 것을 가리키는 참조로 보내므로 같은 모양의 Employee 가 반복되는 목록이 작아지고, 숫자는 text 로 바꾸지 않는다.
+Spring MVC 가 classpath 에서 찾아 등록하는 기본 Smile converter 는 Spring Boot 의 ObjectMapper 설정(spring.jackson.*, module)을 쓰지 않는다.
+-> JSON 과 같은 Jackson2ObjectMapperBuilder 로 만든 converter 로 바꾼다. (같은 class 의 bean 이 기본 converter 를 대신한다.)
+reactive profile 은 WebFlux 가 Smile codec 을 기본으로 등록한다.
+*/
+@Configuration
+@Profile("!reactive")
+public class SmileConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,164 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+change feed - 전체 목록을 다시 읽는 대신 since(seq) 이후의 변경만 받는다. (incremental sync)
+- long-poll (application/json) : 변경이 없으면 waitMillis 동안 기다렸다가 [] 를 돌려준다. 다음 요청은 마지막 seq 를 since 로 보낸다.
+- SSE (text/event-stream) : event id 가 seq 이므로 EventSource 는 끊어지면 Last-Event-ID 로 이어서 받는다.
+*/
+@RestController
+@RequestMapping("/api/employees/changes")
+@Profile("!reactive")
+public class EmployeeChangeController {
+
+    // 한 응답(long-poll) / 한 연결의 backlog 로 보내는 최대 변경 수
+    static final int MAX_BATCH = 1000;
+
+    static final long MAX_WAIT_MILLIS = 60_000;
+
+    private final EmployeeChangeService employeeChangeService;
+
+    public EmployeeChangeController(EmployeeChangeService employeeChangeService) {
+        this.employeeChangeService = employeeChangeService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<List<EmployeeChange>> getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                                           @RequestParam(value = "waitMillis", defaultValue = "30000") long waitMillis) {
+        DeferredResult<List<EmployeeChange>> result =
+                new DeferredResult<>(Math.max(1, Math.min(waitMillis, MAX_WAIT_MILLIS)), List.of());
+
+        // 조회보다 먼저 구독해야 조회와 구독 사이에 발행된 변경을 놓치지 않는다. (먼저 도착한 쪽이 응답이 된다.)
+        Runnable unsubscribe = employeeChangeService.subscribe((previousSeq, changes) -> {
+            List<EmployeeChange> next = previousSeq <= since
+                    ? after(changes, since)
+                    : employeeChangeService.getChanges(since, MAX_BATCH);
+            if (!next.isEmpty()) {
+                result.setResult(next);
+            }
+        });
+        result.onCompletion(unsubscribe);
+
+        List<EmployeeChange> backlog = employeeChangeService.getChanges(since, MAX_BATCH);
+        if (!backlog.isEmpty()) {
+            result.setResult(backlog);
+        }
+        return result;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        ChangeStream stream = new ChangeStream(new SseEmitter(), lastEventId != null ? lastEventId : since);
+        Runnable unsubscribe = employeeChangeService.subscribe(stream);
+        stream.emitter.onCompletion(unsubscribe);
+        stream.emitter.onTimeout(unsubscribe);
+        stream.emitter.onError(e -> unsubscribe.run());
+
+        stream.catchUp();
+        return stream.emitter;
+    }
+
+    private static List<EmployeeChange> after(List<EmployeeChange> changes, long since) {
+        int from = 0;
+        while (from < changes.size() && changes.get(from).getSeq() <= since) {
+            from++;
+        }
+        return changes.subList(from, changes.size());
+    }
+
+    // SSE 연결 하나 - relay thread(onChanges) 와 요청 thread(catchUp) 가 같은 순서로 보내도록 동기화한다.
+    // lock 안에서 DB 조회와 socket 쓰기를 하므로 synchronized 대신 ReentrantLock 을 쓴다. (virtual thread 가 carrier thread 를 잡고 있지 않도록)
+    private final class ChangeStream implements EmployeeChangeService.Listener {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final SseEmitter emitter;
+
+        private long lastSentSeq;
+
+        private boolean closed;
+
+        ChangeStream(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.lastSentSeq = since;
+        }
+
+        @Override
+        public void onChanges(long previousSeq, List<EmployeeChange> changes) {
+            lock.lock();
+            try {
+                if (previousSeq <= lastSentSeq) {
+                    send(after(changes, lastSentSeq));
+                } else {
+                    catchUp();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // 이 연결이 relay 보다 너무 뒤처져서 구독이 해제되었다. - 연결을 끝내면 client 는 Last-Event-ID 로 다시 연결해서 이어 받는다.
+        @Override
+        public void onDropped() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    emitter.complete();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // backlog 가 한 batch 보다 많으면 한 batch 만 보내고 연결을 끝낸다. - client 는 Last-Event-ID 로 다시 연결해서 이어 받는다.
+        void catchUp() {
+            lock.lock();
+            try {
+                List<EmployeeChange> backlog = employeeChangeService.getChanges(lastSentSeq, MAX_BATCH);
+                send(backlog);
+                if (backlog.size() == MAX_BATCH && !closed) {
+                    closed = true;
+                    emitter.complete();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void send(List<EmployeeChange> changes) {
+            if (closed) {
+                return;
+            }
+            try {
+                for (EmployeeChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSeq()))
+                            .name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                    lastSentSeq = change.getSeq();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client 가 연결을 끊었거나 이미 완료된 emitter
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -1,63 +1,296 @@
 package net.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeeDeleteResult;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.dto.EmployeePage;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeField;
+import net.javaguides.springboot.repository.EmployeeVersionView;
 import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 // @RestController annotation to make this class as a spring MVC controller.
 @RestController
 // @RequestMapping annotation to define URL for all the REST APIs in this controller.
 @RequestMapping("/api/employees")
+// reactive profile 에서는 EmployeeRouter(WebFlux) 가 같은 URL 을 처리한다.
+@Profile("!reactive")
 public class EmployeeController {
 
+    // newline-delimited JSON - 한 줄에 Employee 하나
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    // DELETE /api/employees 한 요청(한 트랜잭션)에서 삭제할 수 있는 최대 id 수
+    static final int MAX_DELETE_IDS = 100_000;
+
+    // GET /api/employees 에 limit 이 없을 때의 페이지 크기
+    static final String DEFAULT_PAGE_SIZE = "100";
+
+    // GET /api/employees?ids=... , POST /api/employees/lookup 한 요청에서 조회할 수 있는 최대 id 수
+    static final int MAX_LOOKUP_IDS = 10_000;
+
     private final EmployeeService employeeService;
 
+    private final ObjectMapper objectMapper;
+
+    private final IdempotencyKeyStore idempotencyKeyStore;
+
     // spring 4.3 버전 이후 spring IOC finds a spring bean with a single constructor
     // spring IOC will automatically inject this dependency.
     // @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              IdempotencyKeyStore idempotencyKeyStore) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.idempotencyKeyStore = idempotencyKeyStore;
     }
 
     // @RequestBody annotation internally use as HTTP message converters to convert JSON
     @PostMapping
-    // REST API returns by default the status code as 200
-    // @ResponseStatus 200이 아닌 새로운 응답 상태를 생성하고 싶을 때 사용
+    // REST API returns by default the status code as 200 -> 201 Created
+    // Idempotency-Key header 가 있으면 같은 key 의 재시도에 첫 응답을 다시 돌려준다. (IdempotencyKeyStore)
+    public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee,
+            @RequestHeader(value = IdempotencyKeyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+        }
+
+        IdempotencyKeyStore.Result result =
+                idempotencyKeyStore.execute(idempotencyKey, employee, () -> employeeService.saveEmployee(employee));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (result.replayed()) {
+            response.header(IdempotencyKeyStore.REPLAYED_HEADER, "true");
+        }
+        return response.body(result.employee());
+    }
+
+    // 여러 employee 를 한 번에 생성 - 요청 배열의 row 별 실패 사유를 함께 돌려준다.
+    @PostMapping("/batch")
     @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public EmployeeBatchResult createEmployees(@RequestBody List<Employee> employees) {
+        return employeeService.saveEmployees(employees);
     }
 
+    // keyset pagination : GET /api/employees?after={id}&limit={n} - 전체 table 을 한 응답으로 돌려주지 않는다. (전체는 /export)
+    // limit 을 생략하면 DEFAULT_PAGE_SIZE, 최대 MAX_PAGE_SIZE (service), after 를 생략하면 첫 페이지
+    // 페이지 ETag = 이 페이지의 count, max(id), sum(version) + 다음 페이지 여부
+    // If-None-Match 가 있으면 같은 범위의 (id, version) 만 조회해서 같으면 entity 를 읽거나 직렬화하지 않고 304
+    // ?fields=id,email 이면 요청한 컬럼만 select 해서 돌려준다. (sparse fieldset - ETag 없음)
     @GetMapping
-    public List<Employee> getAllEmployees() { return employeeService.getAllEmployees(); }
+    public ResponseEntity<EmployeePage<?>> getEmployeesPage(
+            @RequestParam(value = "after", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(employeeService.getEmployeesAfter(afterId, limit, parseFields(fields)));
+        }
+
+        if (ifNoneMatch != null) {
+            EmployeePage<EmployeeVersionView> versions = employeeService.getEmployeeVersionsAfter(afterId, limit);
+            String eTag = pageETag(versions.getContent(), EmployeeVersionView::getId, EmployeeVersionView::getVersion,
+                    versions.getNextCursor());
+            if (notModified(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+
+        EmployeePage<Employee> page = employeeService.getEmployeesAfter(afterId, limit);
+        return ResponseEntity.ok()
+                .eTag(pageETag(page.getContent(), Employee::getId, Employee::getVersion, page.getNextCursor()))
+                .body(page);
+    }
+
+    // multi-get : GET /api/employees?ids=3,1,2 - GET /api/employees/{id} N 번 대신 한 요청
+    // 요청 순서대로 돌려주고 없는 id 는 notFound 로 알려준다. (id cache 를 먼저 찾고 나머지만 chunk 단위 IN (...) 조회)
+    @GetMapping(params = "ids")
+    public EmployeeLookupResult getEmployeesByIds(@RequestParam("ids") List<Long> ids) {
+        return lookupEmployees(ids);
+    }
+
+    // id 가 많아서 URL 이 너무 길어지는 경우 : POST /api/employees/lookup , body = [id, ...]
+    @PostMapping("/lookup")
+    public EmployeeLookupResult lookupEmployees(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_LOOKUP_IDS + " ids per request");
+        }
+        return employeeService.getEmployeesByIds(ids);
+    }
+
+    // typeahead 검색 : GET /api/employees/search?q=haz&limit=10 - firstName, lastName, email 의 prefix / infix (최대 50 개)
+    // 검색 index(EmployeeSearchIndex) 가 꺼져 있거나 적재 중이면 503
+    // ?fields=id,email 이면 요청한 필드만 select 해서 돌려준다. (sparse fieldset)
+    @GetMapping("/search")
+    public List<?> searchEmployees(@RequestParam("q") String query,
+                                   @RequestParam(value = "limit", defaultValue = "10") int limit,
+                                   @RequestParam(value = "fields", required = false) String fields) {
+        Optional<? extends List<?>> results = fields == null
+                ? employeeService.searchEmployees(query, limit)
+                : employeeService.searchEmployees(query, limit, parseFields(fields));
+        return results.orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Employee search index is not ready"));
+    }
+
+    // 전체 employee 를 NDJSON 으로 스트리밍한다.
+    // StreamingResponseBody 는 MVC async 스레드에서 실행되므로 첫 row 부터 바로 응답이 나가고,
+    // 메모리에는 JsonGenerator 버퍼와 현재 처리 중인 entity 만 남는다.
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+        // FLUSH_AFTER_WRITE_VALUE 를 끄지 않으면 row 마다 socket flush 가 일어난다.
+        ObjectWriter writer = objectMapper.writerFor(Employee.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                long count = employeeService.exportEmployees(employee -> writeLine(writer, generator, employee));
+                if (count > 0) {
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, Employee employee) {
+        try {
+            writer.writeValue(generator, employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ETag = version, Last-Modified = updatedAt
+    // If-None-Match 가 있으면 version 만 조회해서 같으면 entity 를 읽거나 직렬화하지 않고 304 Not Modified
+    // ?fields=id,email 이면 요청한 컬럼만 PK 로 조회한다. (sparse fieldset - ETag / Last-Modified 없음)
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
+    public ResponseEntity<?> getEmployeeById(@PathVariable("id") long employeeId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.of(employeeService.getEmployeeById(employeeId, parseFields(fields)));
+        }
+
+        if (ifNoneMatch != null) {
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isPresent() && notModified(ifNoneMatch, employeeETag(version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(employeeETag(version.get())).build();
+            }
+        }
+
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok) // Optional 객체의 값이 있다면, map() 함수를 통해 값의 형태를 변경한다.
+                .map(EmployeeController::ok) // Optional 객체의 값이 있다면, map() 함수를 통해 값의 형태를 변경한다.
                 .orElseGet(() -> ResponseEntity.notFound().build()); // Optional 객체의 값이 없다면, 인수로 전달된 공급자 함수(Supplier)의 결과 값을 반환한다.
     }
 
+    // UPDATE 한 문장으로 수정 - 수정된 row 가 없으면 404
+    // body 에 version 을 보내면 optimistic locking : 그 사이 다른 요청이 먼저 수정했다면 409 Conflict
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(savedEmployee -> { // map() : 입력 값을 다른 값으로 변환
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-                }).orElseGet(() -> ResponseEntity.notFound().build()); // orElseGet() : 해당 값이 null인 경우에만 실행
+        try {
+            return employeeService.updateEmployee(employeeId, employee)
+                    .map(EmployeeController::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build()); // orElseGet() : 해당 값이 null인 경우에만 실행
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
+    // DELETE 한 문장으로 삭제 - 삭제된 row 가 없으면 404
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId) {
-        employeeService.deleteEmployee(employeeId);
+        if (!employeeService.deleteEmployee(employeeId)) {
+            return ResponseEntity.notFound().build();
+        }
 
         return new ResponseEntity<>("Employee deleted successfully!", HttpStatus.OK);
     }
+
+    // 여러 employee 를 한 번에 삭제 : DELETE /api/employees , body = [id, ...]
+    // 한 트랜잭션에서 chunk 단위 IN (...) 으로 지우고, 삭제된 수와 없는 id 를 돌려준다.
+    @DeleteMapping
+    public EmployeeDeleteResult deleteEmployees(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_DELETE_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_DELETE_IDS + " ids per request");
+        }
+        return employeeService.deleteEmployees(ids);
+    }
+
+    // 200 응답 - version / updatedAt 을 알 때만 ETag / Last-Modified 를 붙인다.
+    // (요청에 If-Modified-Since 가 있으면 ResponseEntity 처리 과정에서 304 로 바뀐다.)
+    private static ResponseEntity<Employee> ok(Employee employee) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (employee.getVersion() != null) {
+            builder.eTag(employeeETag(employee.getVersion()));
+        }
+        if (employee.getUpdatedAt() != null) {
+            builder.lastModified(employee.getUpdatedAt());
+        }
+        return builder.body(employee);
+    }
+
+    private static Set<EmployeeField> parseFields(String fields) {
+        try {
+            return EmployeeField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // weak ETag - 같은 version 이라도 JSON / Smile, gzip 여부에 따라 응답 byte 가 다르다.
+    // (Tomcat 은 strong ETag 가 붙은 응답을 압축하지 않는다.)
+    private static String employeeETag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // insert / delete : count 나 max(id) 가 바뀐다. (IDENTITY id 는 재사용되지 않는다.) update : version 이 1 씩 증가하므로 sum 이 바뀐다.
+    // 마지막 페이지 뒤에 row 가 추가되면 nextCursor 가 생긴다.
+    private static <T> String pageETag(List<T> rows, ToLongFunction<T> id, Function<T, Long> version, Long nextCursor) {
+        long maxId = 0;
+        long versionSum = 0;
+        for (T row : rows) {
+            maxId = Math.max(maxId, id.applyAsLong(row));
+            Long rowVersion = version.apply(row);
+            versionSum += rowVersion == null ? 0 : rowVersion;
+        }
+        return "W/\"" + rows.size() + "-" + maxId + "-" + versionSum + "-" + (nextCursor == null ? "last" : "more") + "\"";
+    }
+
+    // If-None-Match : "a", W/"b" 또는 * (weak comparison)
+    private static boolean notModified(String ifNoneMatch, String eTag) {
+        String opaqueTag = eTag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,94 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/*
+EmployeeController 와 같은 /api/employees API 의 WebFlux handler (reactive profile, EmployeeRouter 참고)
+- 생성 201, 없는 id 의 조회 / 수정 / 삭제 404, version 불일치 409, 중복 email 400 (ResourceNotFoundException) 은 EmployeeController 와 같다.
+- ETag / If-None-Match(304), ?fields=, ?ids=, /lookup, /search, Idempotency-Key 는 지원하지 않는다.
+*/
+@Component
+@Profile("reactive")
+public class EmployeeHandler {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(EmployeeController.APPLICATION_NDJSON_VALUE);
+
+    private final ReactiveEmployeeService employeeService;
+
+    public EmployeeHandler(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    public Mono<ServerResponse> createEmployee(ServerRequest request) {
+        return request.bodyToMono(Employee.class)
+                .flatMap(employeeService::saveEmployee)
+                .flatMap(savedEmployee -> ServerResponse.status(HttpStatus.CREATED).bodyValue(savedEmployee));
+    }
+
+    public Mono<ServerResponse> createEmployees(ServerRequest request) {
+        return request.bodyToMono(new ParameterizedTypeReference<List<Employee>>() {})
+                .flatMap(employeeService::saveEmployees)
+                .flatMap(result -> ServerResponse.status(HttpStatus.CREATED).bodyValue(result));
+    }
+
+    // keyset pagination : GET /api/employees?after={id}&limit={n}
+    // limit 을 생략하면 DEFAULT_PAGE_SIZE, 최대 MAX_PAGE_SIZE (service), after 를 생략하면 첫 페이지 (EmployeeController 와 같다)
+    // Accept: application/x-ndjson 이면 exportEmployees 와 같이 전체를 한 줄에 하나씩 스트리밍한다.
+    public Mono<ServerResponse> getEmployeesPage(ServerRequest request) {
+        if (request.headers().accept().contains(APPLICATION_NDJSON)) {
+            return exportEmployees(request);
+        }
+        long afterId = request.queryParam("after").map(Long::parseLong).orElse(0L);
+        int limit = Integer.parseInt(request.queryParam("limit").orElse(EmployeeController.DEFAULT_PAGE_SIZE));
+        return ServerResponse.ok().body(employeeService.getEmployeesAfter(afterId, limit), EmployeePage.class);
+    }
+
+    // NDJSON 스트리밍 - 클라이언트가 읽는 속도(backpressure)에 맞춰 DB 에서 row 를 가져온다.
+    public Mono<ServerResponse> exportEmployees(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(employeeService.getAllEmployees(), Employee.class);
+    }
+
+    public Mono<ServerResponse> getEmployeeById(ServerRequest request) {
+        return employeeService.getEmployeeById(employeeId(request))
+                .flatMap(employee -> ServerResponse.ok().bodyValue(employee))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // 수정된 row 가 없으면 404, version 이 맞지 않으면 409 Conflict
+    public Mono<ServerResponse> updateEmployee(ServerRequest request) {
+        long employeeId = employeeId(request);
+        return request.bodyToMono(Employee.class)
+                .flatMap(employee -> employeeService.updateEmployee(employeeId, employee))
+                .flatMap(updatedEmployee -> ServerResponse.ok().bodyValue(updatedEmployee))
+                .switchIfEmpty(ServerResponse.notFound().build())
+                .onErrorResume(OptimisticLockingFailureException.class, e -> ServerResponse.status(HttpStatus.CONFLICT).build());
+    }
+
+    // 삭제된 row 가 없으면 404
+    public Mono<ServerResponse> deleteEmployee(ServerRequest request) {
+        return employeeService.deleteEmployee(employeeId(request))
+                .flatMap(deleted -> deleted
+                        ? ServerResponse.ok().bodyValue("Employee deleted successfully!")
+                        : ServerResponse.notFound().build());
+    }
+
+    private static long employeeId(ServerRequest request) {
+        return Long.parseLong(request.pathVariable("id"));
+    }
+}
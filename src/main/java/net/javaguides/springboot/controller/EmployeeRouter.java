@@ -0,0 +1,34 @@
+package net.javaguides.springboot.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.PUT;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/*
+reactive profile 의 /api/employees routes - EmployeeController(MVC) 와 같은 URL
+reactive profile 에서는 EmployeeController 가 등록되지 않는다.
+(application-reactive.properties 참고)
+*/
+@Configuration
+@Profile("reactive")
+public class EmployeeRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> employeeRoutes(EmployeeHandler handler) {
+        return route(POST("/api/employees"), handler::createEmployee)
+                .andRoute(POST("/api/employees/batch"), handler::createEmployees)
+                .andRoute(GET("/api/employees"), handler::getEmployeesPage)
+                .andRoute(GET("/api/employees/export"), handler::exportEmployees)
+                .andRoute(GET("/api/employees/{id}"), handler::getEmployeeById)
+                .andRoute(PUT("/api/employees/{id}"), handler::updateEmployee)
+                .andRoute(DELETE("/api/employees/{id}"), handler::deleteEmployee);
+    }
+}
@@ -0,0 +1,153 @@
+package net.javaguides.springboot.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+POST /api/employees 의 Idempotency-Key -> 첫 요청의 201 응답 (Caffeine : 개수 제한 + TTL)
+- 같은 key 로 재시도하면 DB 를 조회하지 않고 저장해 둔 응답을 돌려준다. (중복 email 오류 대신)
+- 같은 key 의 요청이 동시에 들어오면 첫 요청만 실행하고 나머지는 그 결과를 기다린다. (insert 는 한 번)
+- 같은 key 에 다른 body 를 보내면 422
+- 실패한 요청은 기록하지 않는다. - 재시도하면 다시 실행한다.
+instance 마다 따로 가진다. (공유 저장소가 아니다)
+- 여러 instance 사이의 중복 insert 는 email unique index 가 막지만, 다른 instance 로 간 재시도는 저장된 응답 대신
+  중복 email 오류("Employee already exist ...")를 받는다. - load balancer 가 같은 client 를 같은 instance 로 보낼 때만 재시도가 안전하다.
+*/
+@Component
+@Profile("!reactive")
+class IdempotencyKeyStore {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // 저장해 둔 응답을 돌려준 경우 응답 header 로 알려준다.
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+
+    private final long waitMillis;
+
+    IdempotencyKeyStore(@Value("${employee.idempotency.maximum-size:100000}") long maximumSize,
+                        @Value("${employee.idempotency.ttl:24h}") Duration ttl,
+                        @Value("${employee.idempotency.wait:30s}") Duration wait) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.waitMillis = wait.toMillis();
+    }
+
+    // key 의 첫 요청이면 action 을 실행하고, 아니면 첫 요청의 결과를 돌려준다. (replayed = true)
+    Result execute(String key, Employee request, Supplier<Employee> action) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Entry entry = new Entry(fingerprint(request));
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(entry.fingerprint)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY_HEADER + " was already used with a different request");
+            }
+            return new Result(await(existing), true);
+        }
+
+        try {
+            Employee saved = action.get();
+            entry.response.complete(snapshot(saved));
+            return new Result(saved, false);
+        } catch (Throwable e) {
+            // Error 도 기록을 지운다. - 남겨 두면 같은 key 의 재시도가 ttl 동안 wait 후 409 를 받는다.
+            entries.asMap().remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // 첫 요청이 실패했으면 같은 예외를 던진다. (같은 오류 응답)
+    private Employee await(Entry entry) {
+        try {
+            return entry.response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with the same " + IDEMPOTENCY_KEY_HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // hash 값이 아니라 요청 필드 자체를 저장하고 equals 로 비교한다. (hash 충돌로 다른 body 가 replay 되지 않는다.)
+    private static List<Object> fingerprint(Employee request) {
+        return Arrays.asList(request.getFirstName(), request.getLastName(), request.getEmail(), request.getVersion());
+    }
+
+    // 응답에 필요한 값만 복사해서 저장한다. (호출자가 돌려받은 entity 를 수정해도 저장된 응답은 바뀌지 않는다.)
+    private static Employee snapshot(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .updatedAt(employee.getUpdatedAt())
+                .build();
+    }
+
+    static final class Result {
+
+        private final Employee employee;
+
+        private final boolean replayed;
+
+        Result(Employee employee, boolean replayed) {
+            this.employee = employee;
+            this.replayed = replayed;
+        }
+
+        Employee employee() {
+            return employee;
+        }
+
+        boolean replayed() {
+            return replayed;
+        }
+    }
+
+    private static final class Entry {
+
+        private final List<Object> fingerprint;
+
+        private final CompletableFuture<Employee> response = new CompletableFuture<>();
+
+        private Entry(List<Object> fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+// POST /api/employees/batch 응답 - 저장된 employee 와 실패한 row(요청 배열의 index 기준)를 함께 돌려준다.
+@Getter
+@AllArgsConstructor
+public class EmployeeBatchResult {
+
+    private final List<Employee> created;
+
+    private final List<Failure> failed;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Failure {
+
+        private final int index;
+
+        private final String email;
+
+        private final String reason;
+    }
+}
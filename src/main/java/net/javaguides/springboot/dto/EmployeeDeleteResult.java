@@ -0,0 +1,16 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// DELETE /api/employees 응답 - 삭제된 row 수와 없는 id (요청 순서, 중복 제거)
+@Getter
+@AllArgsConstructor
+public class EmployeeDeleteResult {
+
+    private final int deleted;
+
+    private final List<Long> notFound;
+}
@@ -0,0 +1,17 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+// GET /api/employees?ids=... / POST /api/employees/lookup 응답 - 찾은 employee 와 없는 id (둘 다 요청 순서, 중복 제거)
+@Getter
+@AllArgsConstructor
+public class EmployeeLookupResult {
+
+    private final List<Employee> employees;
+
+    private final List<Long> notFound;
+}
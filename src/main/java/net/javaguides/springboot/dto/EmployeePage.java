@@ -0,0 +1,18 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// keyset(cursor) pagination 응답 - nextCursor 를 다음 요청의 ?after= 값으로 넘기면 된다.
+// nextCursor 가 null 이면 마지막 페이지
+// content : Employee, sparse fieldset(?fields=) 이면 필드 이름 -> 값
+@Getter
+@AllArgsConstructor
+public class EmployeePage<T> {
+
+    private final List<T> content;
+
+    private final Long nextCursor;
+}
@@ -0,0 +1,46 @@
+package net.javaguides.springboot.event;
+
+import lombok.Getter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// EmployeeServiceImpl 이 Employee 를 생성/수정/삭제한 transaction 안에서 발행한다.
+// - EmployeeOutboxWriter (@EventListener) : 같은 transaction 에서 outbox(employee_changes) 에 기록
+// - EmployeeChangeServiceImpl (@TransactionalEventListener) : commit 후 relay 를 깨운다.
+@Getter
+public class EmployeeChangeEvent {
+
+    private final EmployeeChange.Type type;
+
+    // 변경 후의 값 (DELETED 는 id 만 있다.)
+    private final List<Employee> employees;
+
+    private EmployeeChangeEvent(EmployeeChange.Type type, List<Employee> employees) {
+        this.type = type;
+        this.employees = employees;
+    }
+
+    public static EmployeeChangeEvent created(List<Employee> employees) {
+        return new EmployeeChangeEvent(EmployeeChange.Type.CREATED, List.copyOf(employees));
+    }
+
+    public static EmployeeChangeEvent updated(Employee employee) {
+        return new EmployeeChangeEvent(EmployeeChange.Type.UPDATED, List.of(employee));
+    }
+
+    public static EmployeeChangeEvent deleted(long id) {
+        return new EmployeeChangeEvent(EmployeeChange.Type.DELETED, List.of(Employee.builder().id(id).build()));
+    }
+
+    public static EmployeeChangeEvent deleted(Collection<Long> ids) {
+        List<Employee> employees = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            employees.add(Employee.builder().id(id).build());
+        }
+        return new EmployeeChangeEvent(EmployeeChange.Type.DELETED, List.copyOf(employees));
+    }
+}
@@ -3,6 +3,7 @@ package net.javaguides.springboot.model;
 import lombok.*;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Setter
 @Getter
@@ -11,9 +12,17 @@ import javax.persistence.*;
 @Builder
 
 @Entity
-@Table(name = "employees")
+// email unique index - 중복 검사를 full scan 없이 하고, 동시에 생성되는 요청 간 race 도 DB 에서 막는다.
+// (last_name, first_name) index - EmployeeRepository 의 이름 검색 쿼리용
+@Table(name = "employees", indexes = {
+        @Index(name = Employee.EMAIL_UNIQUE_INDEX, columnList = "email", unique = true),
+        @Index(name = "idx_employees_last_first", columnList = "last_name, first_name")
+})
 public class Employee {
 
+    // unique index 위반 예외가 email 중복 때문인지 판단할 때 사용한다. (EmployeeServiceImpl)
+    public static final String EMAIL_UNIQUE_INDEX = "uk_employees_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -26,4 +35,20 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    // optimistic locking - 수정할 때마다 1 씩 증가한다.
+    // PUT 요청에 version 을 함께 보내면 그 version 일 때만 수정된다. (다르면 409 Conflict)
+    @Version
+    private Long version;
+
+    // 마지막으로 저장/수정된 시각 - GET 응답의 Last-Modified
+    // (EmployeeRepository.updateById 같은 bulk update 는 직접 값을 넣는다.)
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
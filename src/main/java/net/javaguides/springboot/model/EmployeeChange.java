@@ -0,0 +1,48 @@
+package net.javaguides.springboot.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+
+@Entity
+// transactional outbox - Employee 변경과 같은 transaction 에서 기록한다. (EmployeeOutboxWriter)
+// seq 순서가 변경 순서이고, GET /api/employees/changes?since=<seq> 의 cursor 로 사용한다.
+@Table(name = "employee_changes")
+public class EmployeeChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long seq;
+
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private Type type;
+
+    // 변경 후의 값 (DELETED 는 null)
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,23 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// transactional outbox (employee_changes)
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long>, EmployeeChangeRepositoryCustom {
+
+    // seq 범위 (since, until] 를 seq 순서로 - PK range scan
+    @Query("select c from EmployeeChange c where c.seq > :since and c.seq <= :until order by c.seq")
+    List<EmployeeChange> findRange(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+    @Query("select c from EmployeeChange c where c.seq > :since order by c.seq")
+    List<EmployeeChange> findAfter(@Param("since") long since, Pageable pageable);
+
+    @Query("select coalesce(max(c.seq), 0) from EmployeeChange c")
+    long findMaxSeq();
+}
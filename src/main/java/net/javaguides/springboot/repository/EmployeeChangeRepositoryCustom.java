@@ -0,0 +1,15 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.List;
+
+// 구현체는 EmployeeChangeRepositoryCustomImpl
+public interface EmployeeChangeRepositoryCustom {
+
+    // JDBC batch insert - batch 저장(POST /batch)의 변경도 한 번에 기록한다. (seq 는 채우지 않는다.)
+    void batchInsert(List<EmployeeChange> changes);
+
+    // relay 가 건너뛴 뒤에 commit 된 변경을 새 seq 로 다시 기록하고 원래 row 는 지운다. 다시 기록한 변경 수를 반환한다.
+    int requeue(List<EmployeeChange> changes);
+}
@@ -0,0 +1,63 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+class EmployeeChangeRepositoryCustomImpl implements EmployeeChangeRepositoryCustom {
+
+    private static final String INSERT_SQL = "insert into employee_changes"
+            + " (employee_id, change_type, first_name, last_name, email, version, changed_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_SQL = "delete from employee_changes where seq = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    EmployeeChangeRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // outbox 는 Employee 변경과 같은 transaction 에서만 기록한다.
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void batchInsert(List<EmployeeChange> changes) {
+        insert(changes);
+    }
+
+    // 삭제와 다시 기록을 한 transaction 에서 한다. - 구독자는 같은 변경을 두 번 받지 않는다.
+    // 여러 instance 가 같은 row 를 다시 기록하려고 하면 delete 에 성공한(update count 1) instance 만 기록한다.
+    @Override
+    @Transactional
+    public int requeue(List<EmployeeChange> changes) {
+        List<EmployeeChange> deleted = new ArrayList<>(changes.size());
+        for (EmployeeChange change : changes) {
+            if (jdbcTemplate.update(DELETE_SQL, change.getSeq()) == 1) {
+                deleted.add(change);
+            }
+        }
+        insert(deleted);
+        return deleted.size();
+    }
+
+    private void insert(List<EmployeeChange> changes) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, EmployeeRepositoryCustomImpl.BATCH_SIZE, (ps, change) -> {
+            ps.setLong(1, change.getEmployeeId());
+            ps.setString(2, change.getType().name());
+            ps.setString(3, change.getFirstName());
+            ps.setString(4, change.getLastName());
+            ps.setString(5, change.getEmail());
+            if (change.getVersion() == null) {
+                ps.setNull(6, Types.BIGINT);
+            } else {
+                ps.setLong(6, change.getVersion());
+            }
+            ps.setTimestamp(7, Timestamp.from(change.getChangedAt()));
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package net.javaguides.springboot.repository;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// sparse fieldset (?fields=id,email) 에서 고를 수 있는 Employee 필드
+// 이름은 JSON 필드 이름이자 entity 속성 이름이다. -> 허용된 이름만 JPQL select 절에 들어간다. (EmployeeRepositoryCustomImpl)
+public enum EmployeeField {
+
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    EMAIL("email"),
+    VERSION("version"),
+    UPDATED_AT("updatedAt");
+
+    private final String property;
+
+    EmployeeField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    // "email,id" -> [ID, EMAIL] (응답의 필드 순서는 항상 enum 순서)
+    // 비어 있거나 모르는 이름이 있으면 IllegalArgumentException
+    public static Set<EmployeeField> parse(String fields) {
+        Set<EmployeeField> parsed = EnumSet.noneOf(EmployeeField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(fromProperty(trimmed));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return parsed;
+    }
+
+    private static EmployeeField fromProperty(String property) {
+        for (EmployeeField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + property);
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguides.springboot.repository;
+
+// interface 기반 projection - 이름 검색에 필요한 컬럼만 select 한다.
+// id, first_name, last_name 은 모두 (last_name, first_name) index 에 들어있어서 (InnoDB secondary index 는 PK 포함)
+// table row 를 읽지 않고 index 만으로 결과를 만들 수 있다. entity 도 만들지 않는다.
+public interface EmployeeNameView {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+}
@@ -1,17 +1,76 @@
 package net.javaguides.springboot.repository;
 
 import net.javaguides.springboot.model.Employee;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
+    // EmployeeService 의 조회(getEmployeeByEmail / getEmployeesByName / getEmployeesByIds)는 service 에서 transaction 을 열지 않는다.
+    // -> readOnly transaction 을 여기서 선언한다. (replica routing, 쓰기 transaction 안에서 호출하면 그 transaction 에 참여)
+    @Transactional(readOnly = true)
     Optional<Employee> findByEmail(String email);
 
+    // multi-get - chunk 하나에 IN (...) 한 문장, 반환 순서는 service 가 요청 순서로 맞춘다.
+    @Transactional(readOnly = true)
+    @Query("select e from Employee e where e.id in :ids")
+    List<Employee> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 단일 UPDATE 문으로 수정한다. (조회 후 save() -> merge 의 SELECT 없이)
+    // version 이 null 이면 version 과 상관없이 수정하고, 값이 있으면 그 version 일 때만 수정한다. (optimistic locking)
+    // bulk update 는 @Version 을 자동으로 올리지 않으므로 직접 증가시킨다. (기존 row 의 null version 은 0 으로 취급)
+    // 반환 값 : 수정된 row 수 (0 이면 id 가 없거나 version 이 다름)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email,"
+            + " e.version = coalesce(e.version, 0) + 1, e.updatedAt = :updatedAt"
+            + " where e.id = :id and (:version is null or e.version = :version)")
+    int updateById(@Param("id") long id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+                   @Param("email") String email, @Param("version") Long version, @Param("updatedAt") Instant updatedAt);
+
+    // 단일 DELETE 문으로 삭제한다. (deleteById 는 entity 를 SELECT 한 뒤 DELETE 한다.)
+    // 반환 값 : 삭제된 row 수 (0 이면 id 가 없음)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Employee e where e.id = :id")
+    int deleteRowById(@Param("id") long id);
+
+    // 여러 건 삭제 - IN (...) 한 문장으로 지운다. (호출하는 쪽에서 chunk 로 나눈다.)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteRowsByIds(@Param("ids") Collection<Long> ids);
+
+    // 여러 건 삭제 전 - 실제로 있는 id 만 (삭제 이벤트와 not found 목록용, PK index 만 읽는다.)
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // conditional GET(If-None-Match) 용 - entity 를 읽지 않고 version 만 조회한다. (PK lookup)
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    // 목록 페이지 ETag 용 - findPageAfter 와 같은 범위의 (id, version) 만 조회한다. (PK range scan, entity 없음)
+    @Query("select e.id as id, e.version as version from Employee e where e.id > :afterId order by e.id")
+    List<EmployeeVersionView> findVersionsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // batch 저장 전 중복 검사 - row 마다 findByEmail 하지 않고 IN 쿼리 한 번으로 이미 있는 email 만 가져온다.
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     // define custom query using JPQL(Java Persistence Query Language : 엔티티 객체를 조회하는 객체지향 쿼리) with index params
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQL(String firstName, String lastName);
@@ -29,4 +88,56 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query(value = "select * from employees e where e.first_Name = :firstName and e.last_Name = :lastName", nativeQuery = true)
     Employee findByNativeSQLNamed(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+    // 위의 이름 검색은 단건 반환이라 동명이인이 있으면 예외가 발생한다. -> List / Page 버전
+    // 조건 순서는 (last_name, first_name) index 와 맞춘다.
+    @Transactional(readOnly = true)
+    @Query("select e from Employee e where e.lastName = :lastName and e.firstName = :firstName order by e.id")
+    List<Employee> findAllByJPQL(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    @Query(value = "select e from Employee e where e.lastName = :lastName and e.firstName = :firstName",
+            countQuery = "select count(e) from Employee e where e.lastName = :lastName and e.firstName = :firstName")
+    Page<Employee> findPageByJPQL(@Param("firstName") String firstName, @Param("lastName") String lastName, Pageable pageable);
+
+    @Query(value = "select * from employees e where e.last_name = :lastName and e.first_name = :firstName order by e.id", nativeQuery = true)
+    List<Employee> findAllByNativeSQL(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    // projection 버전 - index 에 있는 컬럼만 읽는다. (covering index)
+    @Query("select e.id as id, e.firstName as firstName, e.lastName as lastName from Employee e"
+            + " where e.lastName = :lastName and e.firstName = :firstName order by e.id")
+    List<EmployeeNameView> findNameViewsByJPQL(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    @Query(value = "select e.id as id, e.firstName as firstName, e.lastName as lastName from Employee e"
+            + " where e.lastName = :lastName and e.firstName = :firstName",
+            countQuery = "select count(e) from Employee e where e.lastName = :lastName and e.firstName = :firstName")
+    Page<EmployeeNameView> findNameViewPageByJPQL(@Param("firstName") String firstName, @Param("lastName") String lastName, Pageable pageable);
+
+    @Query(value = "select e.id as id, e.first_name as firstName, e.last_name as lastName from employees e"
+            + " where e.last_name = :lastName and e.first_name = :firstName order by e.id", nativeQuery = true)
+    List<EmployeeNameView> findNameViewsByNativeSQL(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    // keyset(seek) pagination - OFFSET 대신 PK(id) 기준으로 다음 페이지를 찾는다.
+    // where id > :afterId order by id limit ? -> 몇 번째 페이지든 PK 인덱스 range scan 비용이 동일하다.
+    // Pageable 은 PageRequest.of(0, size) 로 넘겨서 LIMIT 만 적용되도록 한다.
+    @Query("select e from Employee e where e.id > :afterId order by e.id")
+    List<Employee> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // 전체 테이블을 List 로 적재하지 않고 JDBC cursor 로 한 건씩 읽어온다. (export 용)
+    // fetchSize : 드라이버가 한 번에 가져오는 row 수 (MySQL 은 useCursorFetch=true 일 때만 적용)
+    // readOnly : dirty checking 용 snapshot 을 만들지 않는다.
+    // Stream 은 반드시 트랜잭션 안에서 소비하고 close 해야 한다.
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    // EmailBloomFilter 재생성용 key-only scan - email unique index 만 읽는다.
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "10000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select e.email from Employee e")
+    Stream<String> streamAllEmails();
+
 }
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Spring Data JPA 로 표현하기 어려운 쿼리를 위한 custom fragment
+// 구현체는 EmployeeRepositoryCustomImpl (이름 규칙 : interface 이름 + Impl)
+public interface EmployeeRepositoryCustom {
+
+    // JDBC batch insert - 생성된 id 를 각 Employee 에 채워서 돌려준다.
+    // IDENTITY 전략에서는 Hibernate 가 insert batching 을 하지 않기 때문에 JDBC 로 직접 처리한다.
+    // email unique index 를 위반한 row 는 건너뛰고, 저장된 employee 만 요청 순서대로 돌려준다. (다른 위반은 그대로 던진다)
+    List<Employee> batchInsert(List<Employee> employees);
+
+    // sparse fieldset - 요청한 컬럼만 select 하는 tuple 쿼리
+    // entity 를 만들지 않으므로 persistence context 에 올라가거나 dirty checking 되지 않는다.
+    // row 하나 = 필드 이름 -> 값 (EmployeeField 순서)
+    // keyset page - findPageAfter 와 같은 범위 (id > afterId order by id, limit 건)
+    List<Map<String, Object>> findFieldsAfter(long afterId, int limit, Set<EmployeeField> fields);
+
+    Optional<Map<String, Object>> findFieldsById(long id, Set<EmployeeField> fields);
+
+    // IN (...) 한 문장 - 반환 순서는 호출하는 쪽에서 맞춘다.
+    List<Map<String, Object>> findFieldsByIdIn(Collection<Long> ids, Set<EmployeeField> fields);
+}
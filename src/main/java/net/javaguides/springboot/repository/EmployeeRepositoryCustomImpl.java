@@ -0,0 +1,188 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    // executeBatch() 한 번에 보내는 row 수
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "insert into employees (first_name, last_name, email, version, updated_at) values (?, ?, ?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    EmployeeRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> batchInsert(List<Employee> employees) {
+        Instant updatedAt = Instant.now();
+        // JpaTransactionManager 가 열어둔 커넥션을 그대로 사용한다. (같은 트랜잭션)
+        return jdbcTemplate.execute((ConnectionCallback<List<Employee>>) connection -> {
+            List<Employee> inserted = new ArrayList<>(employees.size());
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < employees.size(); from += BATCH_SIZE) {
+                    int to = Math.min(from + BATCH_SIZE, employees.size());
+                    insertChunk(connection, ps, employees.subList(from, to), updatedAt, inserted);
+                }
+            }
+            return inserted;
+        });
+    }
+
+    // chunk 하나를 savepoint 안에서 executeBatch 한다.
+    // 중복 검사 이후에 다른 요청이 같은 email 을 먼저 commit 하면 batch 가 BatchUpdateException 으로 실패한다.
+    // -> savepoint 로 되돌리고, update count 상 실패 전까지 성공했던 row 는 다시 batch 로,
+    //    나머지는 row 마다 insert 해서 email unique index 위반 row 만 건너뛴다.
+    private static void insertChunk(Connection connection, PreparedStatement ps, List<Employee> chunk,
+                                    Instant updatedAt, List<Employee> inserted) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            executeBatch(ps, chunk, updatedAt);
+            connection.releaseSavepoint(savepoint);
+            inserted.addAll(chunk);
+        } catch (BatchUpdateException e) {
+            connection.rollback(savepoint);
+            ps.clearBatch();
+            if (chunk.size() == 1) {
+                if (!isDuplicateEmail(e)) {
+                    throw e;
+                }
+                return;
+            }
+            // rewriteBatchedStatements 처럼 batch 전체가 한 문장이면 앞쪽 성공 row 가 없을 수 있다.
+            int succeeded = Math.min(leadingSuccesses(e.getUpdateCounts()), chunk.size() - 1);
+            if (succeeded > 0) {
+                insertChunk(connection, ps, chunk.subList(0, succeeded), updatedAt, inserted);
+            }
+            for (Employee employee : chunk.subList(succeeded, chunk.size())) {
+                insertChunk(connection, ps, List.of(employee), updatedAt, inserted);
+            }
+        }
+    }
+
+    private static void executeBatch(PreparedStatement ps, List<Employee> rows, Instant updatedAt) throws SQLException {
+        for (Employee employee : rows) {
+            ps.setString(1, employee.getFirstName());
+            ps.setString(2, employee.getLastName());
+            ps.setString(3, employee.getEmail());
+            ps.setTimestamp(4, Timestamp.from(updatedAt));
+            ps.addBatch();
+        }
+        ps.executeBatch();
+
+        // generated key 는 batch 에 추가한 순서대로 돌아온다.
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            int index = 0;
+            while (keys.next() && index < rows.size()) {
+                Employee employee = rows.get(index++);
+                employee.setId(keys.getLong(1));
+                employee.setVersion(0L);
+                employee.setUpdatedAt(updatedAt);
+            }
+        }
+    }
+
+    private static int leadingSuccesses(int[] updateCounts) {
+        int count = 0;
+        while (count < updateCounts.length && updateCounts[count] != Statement.EXECUTE_FAILED) {
+            count++;
+        }
+        return count;
+    }
+
+    // driver 마다 위반 정보가 message, next exception, cause 중 어디에 있는지 달라서 모두 확인한다.
+    private static boolean isDuplicateEmail(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (containsEmailIndex(cause.getMessage())) {
+                return true;
+            }
+        }
+        for (SQLException next = e.getNextException(); next != null; next = next.getNextException()) {
+            if (containsEmailIndex(next.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsEmailIndex(String message) {
+        return message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_INDEX);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsAfter(long afterId, int limit, Set<EmployeeField> fields) {
+        TypedQuery<Tuple> query = fieldsQuery(fields, " where e.id > :afterId order by e.id")
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        return toMaps(query, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsById(long id, Set<EmployeeField> fields) {
+        TypedQuery<Tuple> query = fieldsQuery(fields, " where e.id = :id").setParameter("id", id);
+        return toMaps(query, fields).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByIdIn(Collection<Long> ids, Set<EmployeeField> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toMaps(fieldsQuery(fields, " where e.id in :ids").setParameter("ids", ids), fields);
+    }
+
+    // select 절은 EmployeeField 의 속성 이름으로만 만든다. (요청 문자열이 쿼리에 들어가지 않는다.)
+    private TypedQuery<Tuple> fieldsQuery(Set<EmployeeField> fields, String where) {
+        String select = fields.stream()
+                .map(field -> "e." + field.property())
+                .collect(Collectors.joining(", "));
+        return entityManager.createQuery("select " + select + " from Employee e" + where, Tuple.class);
+    }
+
+    private static List<Map<String, Object>> toMaps(TypedQuery<Tuple> query, Set<EmployeeField> fields) {
+        return query.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    int index = 0;
+                    for (EmployeeField field : fields) {
+                        row.put(field.property(), tuple.get(index++));
+                    }
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+}
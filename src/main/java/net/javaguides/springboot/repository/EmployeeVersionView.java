@@ -0,0 +1,9 @@
+package net.javaguides.springboot.repository;
+
+// 목록 페이지 ETag 용 projection - If-None-Match 비교에 필요한 (id, version) 만 select 한다. (entity 를 만들지 않는다.)
+public interface EmployeeVersionView {
+
+    Long getId();
+
+    Long getVersion();
+}
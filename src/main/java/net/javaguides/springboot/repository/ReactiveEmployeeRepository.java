@@ -0,0 +1,142 @@
+package net.javaguides.springboot.repository;
+
+import io.r2dbc.spi.Row;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/*
+EmployeeRepository 의 쿼리를 R2DBC(DatabaseClient) 로 옮긴 reactive repository (reactive profile 전용)
+Employee 는 JPA entity 라 Spring Data R2DBC 의 mapping 을 쓸 수 없으므로 SQL 과 row mapping 을 직접 작성한다.
+*/
+@Repository
+@Profile("reactive")
+public class ReactiveEmployeeRepository {
+
+    // 드라이버가 한 번에 가져오는 row 수 - 구독자의 demand 보다 많이 읽어두지 않도록 제한한다.
+    static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_SQL = "select id, first_name, last_name, email, version, updated_at from employees";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveEmployeeRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Employee> findById(long id) {
+        return databaseClient.sql(SELECT_SQL + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .one();
+    }
+
+    public Mono<Employee> findByEmail(String email) {
+        return databaseClient.sql(SELECT_SQL + " where email = :email")
+                .bind("email", email)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("select id from employees where id = :id")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    // EmployeeRepository.findVersionById 와 같다. - version 이 없는 수정 요청의 응답 version
+    public Mono<Long> findVersionById(long id) {
+        return databaseClient.sql("select version from employees where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    // 전체 employee 를 id 순으로 흘려보낸다. - List 로 모으지 않고 구독자의 request(n) 만큼 row 를 읽는다.
+    public Flux<Employee> findAll() {
+        return databaseClient.sql(SELECT_SQL + " order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    // keyset pagination : where id > :afterId order by id limit :limit
+    public Flux<Employee> findPageAfter(long afterId, int limit) {
+        return databaseClient.sql(SELECT_SQL + " where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    public Mono<Employee> insert(Employee employee) {
+        Instant updatedAt = Instant.now();
+        return databaseClient.sql("insert into employees (first_name, last_name, email, version, updated_at)"
+                        + " values (:firstName, :lastName, :email, 0, :updatedAt)")
+                .bind("firstName", employee.getFirstName())
+                .bind("lastName", employee.getLastName())
+                .bind("email", employee.getEmail())
+                .bind("updatedAt", toLocalDateTime(updatedAt))
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    employee.setId(id);
+                    employee.setVersion(0L);
+                    employee.setUpdatedAt(updatedAt);
+                    return employee;
+                });
+    }
+
+    // EmployeeRepository.updateById 와 같은 UPDATE 한 문장 - version 이 있으면 그 version 일 때만 수정한다.
+    public Mono<Integer> updateById(long id, String firstName, String lastName, String email, Long version, Instant updatedAt) {
+        String sql = "update employees set first_name = :firstName, last_name = :lastName, email = :email,"
+                + " version = coalesce(version, 0) + 1, updated_at = :updatedAt where id = :id";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(version == null ? sql : sql + " and version = :version")
+                .bind("firstName", firstName)
+                .bind("lastName", lastName)
+                .bind("email", email)
+                .bind("updatedAt", toLocalDateTime(updatedAt))
+                .bind("id", id);
+        if (version != null) {
+            spec = spec.bind("version", version);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> deleteById(long id) {
+        return databaseClient.sql("delete from employees where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Employee toEmployee(Row row) {
+        return Employee.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .updatedAt(toInstant(row.get("updated_at", LocalDateTime.class)))
+                .build();
+    }
+
+    // Hibernate 와 같이 Instant 를 JVM 기본 time zone 의 timestamp 로 저장한다.
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime localDateTime) {
+        return localDateTime == null ? null : localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
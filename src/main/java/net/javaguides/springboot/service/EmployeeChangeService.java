@@ -0,0 +1,26 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.EmployeeChange;
+
+import java.util.List;
+
+// change feed - outbox(employee_changes) 의 변경을 seq 순서로 제공한다. (GET /api/employees/changes)
+public interface EmployeeChangeService {
+
+    // relay 가 새 변경을 발행할 때마다 호출된다.
+    // changes 는 (previousSeq, 마지막 seq] 범위의 변경 전체이다. previousSeq 이전의 변경은 getChanges 로 조회한다.
+    // 구독자마다 순서대로 하나씩 호출되고, 구독자끼리는 서로 기다리지 않는다.
+    interface Listener {
+        void onChanges(long previousSeq, List<EmployeeChange> changes);
+
+        // 구독자가 너무 뒤처져서 구독이 해제되었다. - 이후의 변경은 getChanges 로 이어서 조회해야 한다.
+        default void onDropped() {
+        }
+    }
+
+    // since 이후의 변경 중 relay 가 발행한 것 - seq 순서, 최대 limit 개
+    List<EmployeeChange> getChanges(long since, int limit);
+
+    // 반환된 Runnable 을 실행하면 구독이 해제된다.
+    Runnable subscribe(Listener listener);
+}
@@ -1,14 +1,37 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeeDeleteResult;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.dto.EmployeePage;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeField;
+import net.javaguides.springboot.repository.EmployeeVersionView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
+    EmployeeBatchResult saveEmployees(List<Employee> employees);
     List<Employee> getAllEmployees();
+    EmployeePage<Employee> getEmployeesAfter(long afterId, int limit);
+    EmployeePage<Map<String, Object>> getEmployeesAfter(long afterId, int limit, Set<EmployeeField> fields);
+    EmployeePage<EmployeeVersionView> getEmployeeVersionsAfter(long afterId, int limit);
+    long exportEmployees(Consumer<Employee> consumer);
     Optional<Employee> getEmployeeById(long id);
-    Employee updateEmployee(Employee employee);
-    void deleteEmployee(Long id);
+    Optional<Map<String, Object>> getEmployeeById(long id, Set<EmployeeField> fields);
+    EmployeeLookupResult getEmployeesByIds(Collection<Long> ids);
+    Optional<List<Employee>> searchEmployees(String query, int limit);
+    Optional<List<Map<String, Object>>> searchEmployees(String query, int limit, Set<EmployeeField> fields);
+    Optional<Employee> getEmployeeByEmail(String email);
+    List<Employee> getEmployeesByName(String firstName, String lastName);
+    Optional<Long> getEmployeeVersion(long id);
+    Optional<Employee> updateEmployee(long id, Employee employee);
+    boolean deleteEmployee(long id);
+    EmployeeDeleteResult deleteEmployees(Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// EmployeeService 의 non-blocking 버전 (reactive profile)
+public interface ReactiveEmployeeService {
+    Mono<Employee> saveEmployee(Employee employee);
+    Mono<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+    Flux<Employee> getAllEmployees();
+    Mono<EmployeePage<Employee>> getEmployeesAfter(long afterId, int limit);
+    Mono<Employee> getEmployeeById(long id);
+    Mono<Employee> updateEmployee(long id, Employee employee);
+    Mono<Boolean> deleteEmployee(long id);
+}
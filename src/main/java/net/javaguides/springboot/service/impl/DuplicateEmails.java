@@ -0,0 +1,22 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+// EmployeeServiceImpl(JPA) 과 ReactiveEmployeeServiceImpl(R2DBC) 이 같이 쓰는 중복 email 판단
+final class DuplicateEmails {
+
+    private DuplicateEmails() {
+    }
+
+    // 실패한 statement 뒤에 다시 조회하지 않고, 위반한 index 이름으로 판단한다. (NOT NULL 등 다른 위반은 false)
+    static boolean isDuplicateEmail(Throwable e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
+        }
+        String message = ((DataIntegrityViolationException) e).getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_INDEX);
+    }
+}
@@ -0,0 +1,155 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+// 저장된 email 에 대한 in-memory Bloom filter
+// mightContain() 이 false 면 "확실히 없는 email" 이므로 saveEmployee 에서 중복 검사 SELECT 를 생략할 수 있다.
+// true 는 "있을 수도 있음" - 기존처럼 findByEmail 로 확인한다. (삭제된 email 도 true 로 남는다)
+// 최종적인 중복 방지는 email unique index 가 담당하고, filter 는 SELECT 를 줄이는 용도로만 쓴다.
+@Component
+public class EmailBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final boolean enabled;
+
+    private final int numBits;
+
+    private final int numHashFunctions;
+
+    private volatile AtomicLongArray bits;
+
+    // rebuild 중에 추가되는 email 을 잃어버리지 않도록 새로 만드는 bit 배열에도 같이 기록한다.
+    private volatile AtomicLongArray rebuilding;
+
+    // startup scan 이 끝나기 전에는 모든 email 을 "있을 수도 있음" 으로 취급한다.
+    private volatile boolean ready;
+
+    public EmailBloomFilter(EmployeeRepository employeeRepository,
+                            @Value("${employee.email-filter.enabled:false}") boolean enabled,
+                            @Value("${employee.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${employee.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+
+        // m = -n * ln(p) / (ln 2)^2 , k = m / n * ln 2
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 63L));
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray(enabled ? words() : 0);
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public boolean mightContain(String email) {
+        if (!isReady() || email == null) {
+            return true;
+        }
+
+        AtomicLongArray current = bits;
+        long hash1 = hash(email);
+        long hash2 = Hashes.mix(hash1);
+        for (int i = 0; i < numHashFunctions; i++) {
+            int index = index(hash1, hash2, i);
+            if ((current.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+
+        AtomicLongArray building = rebuilding;
+        set(bits, email);
+        if (building != null) {
+            set(building, email);
+        }
+    }
+
+    // 애플리케이션 시작 후 email 컬럼만 읽는 streaming scan 으로 filter 를 다시 만든다.
+    // (email unique index 만 읽는 index-only scan)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long count;
+        try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+            count = load(emails);
+        }
+        log.info("Email bloom filter rebuilt: {} emails, {} bits, {} hash functions in {} ms",
+                count, numBits, numHashFunctions, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public long load(Stream<String> emails) {
+        if (!enabled) {
+            return 0;
+        }
+
+        AtomicLongArray building = new AtomicLongArray(words());
+        rebuilding = building;
+        long count = 0;
+        try {
+            for (String email : (Iterable<String>) emails::iterator) {
+                set(building, email);
+                count++;
+            }
+            bits = building;
+            ready = true;
+        } finally {
+            rebuilding = null;
+        }
+        return count;
+    }
+
+    private int words() {
+        return (numBits + 63) >>> 6;
+    }
+
+    private void set(AtomicLongArray target, String email) {
+        long hash1 = hash(email);
+        long hash2 = Hashes.mix(hash1);
+        for (int i = 0; i < numHashFunctions; i++) {
+            int index = index(hash1, hash2, i);
+            long mask = 1L << index;
+            target.getAndAccumulate(index >>> 6, mask, (word, bit) -> word | bit);
+        }
+    }
+
+    // Kirsch-Mitzenmacher : 두 개의 hash 로 k 개의 hash 를 만든다. (h1 + i * h2)
+    private int index(long hash1, long hash2, int i) {
+        long combined = hash1 + i * hash2;
+        return (int) ((combined & Long.MAX_VALUE) % numBits);
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return Hashes.mix(hash);
+    }
+}
@@ -0,0 +1,321 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+outbox relay - employee_changes 를 seq 순서로 읽어서 구독자(long-poll / SSE)에게 발행한다.
+- commit 알림(@TransactionalEventListener)을 받으면 바로, 없으면 poll-interval 마다 조회한다.
+  그 사이에 commit 된 변경은 한 번의 조회(최대 batch-size)로 묶여서 발행된다.
+- 다른 instance 가 기록한 변경도 같은 table 에서 읽으므로 모든 instance 의 구독자가 같은 순서로 받는다.
+- IDENTITY seq 는 commit 순서가 아니라 insert 순서로 발급된다. 비어 있는 seq 는 아직 commit 되지 않은 transaction 일 수 있으므로
+  gap-timeout 동안은 그 앞까지만 발행하고, 그래도 채워지지 않으면 건너뛴다.
+  건너뛴 범위는 gap-retention 동안 relay 할 때마다 다시 조회한다. 그 사이에 commit 된 변경(gap-timeout 보다 오래 걸린 transaction)은
+  새 seq 로 다시 기록해서(requeue) 늦게라도 발행한다. - 원래 seq 보다 뒤의 변경보다 늦게 나온다.
+  건너뛴 범위는 memory 에만 있으므로 재시작하면 그 이전에 건너뛴 seq 는 다시 확인하지 않는다.
+- reactive profile 의 쓰기(ReactiveEmployeeServiceImpl)는 outbox 를 기록하지 않는다. - 이 feed 에는 servlet profile 의 쓰기만 나온다.- 구독자마다 bounded queue 를 두고 각자의 (virtual) thread 에서 전달한다. 느린 구독자(SSE 연결)가 relay thread 나 다른 구독자를 막지 않는다.
+  queue 가 subscriber-queue-size 만큼 밀리면 그 구독을 해제하고 Listener.onDropped 를 호출한다. (SSE 는 연결을 끝내고 Last-Event-ID 로 이어 받는다.)
+*/
+@Service
+@Profile("!reactive")
+public class EmployeeChangeServiceImpl implements EmployeeChangeService {
+
+    public static final String RELAY_THREAD_NAME = "employee-change-relay";
+
+    // 구독자에게 전달하는 virtual thread 이름의 prefix (뒤에 번호가 붙는다.)
+    public static final String DELIVERY_THREAD_NAME = "employee-change-delivery-";
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeServiceImpl.class);
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final int batchSize;
+
+    private final Duration pollInterval;
+
+    private final Duration gapTimeout;
+
+    private final Duration gapRetention;
+
+    private final int subscriberQueueSize;
+
+    private final Executor deliveryExecutor;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    // 구독자에게 발행한 마지막 seq - 이 값까지는 빈 seq 없이 확정되었다.
+    private volatile long publishedSeq;
+
+    // 건너뛴 seq 범위 - relay thread 만 사용한다.
+    private final List<Gap> skippedGaps = new ArrayList<>();
+
+    private volatile boolean running;
+
+    private Thread relayThread;
+
+    @Autowired
+    public EmployeeChangeServiceImpl(EmployeeChangeRepository employeeChangeRepository,
+                                     @Value("${employee.changes.batch-size:500}") int batchSize,
+                                     @Value("${employee.changes.poll-interval:1s}") Duration pollInterval,
+                                     @Value("${employee.changes.gap-timeout:5s}") Duration gapTimeout,
+                                     @Value("${employee.changes.gap-retention:10m}") Duration gapRetention,
+                                     @Value("${employee.changes.subscriber-queue-size:64}") int subscriberQueueSize) {
+        this(employeeChangeRepository, batchSize, pollInterval, gapTimeout, gapRetention, subscriberQueueSize,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(DELIVERY_THREAD_NAME, 0).factory()));
+    }
+
+    // deliveryExecutor : 구독자에게 전달하는 thread - 전달이 막혀도(socket 쓰기) 다른 구독자와 relay 는 계속된다.
+    public EmployeeChangeServiceImpl(EmployeeChangeRepository employeeChangeRepository, int batchSize, Duration pollInterval,
+                                     Duration gapTimeout, Duration gapRetention, int subscriberQueueSize, Executor deliveryExecutor) {
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.gapRetention = gapRetention;
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    // 시작 이전의 변경은 발행하지 않는다. (구독자는 getChanges 로 since 부터 조회한다.)
+    @PostConstruct
+    public void start() {
+        publishedSeq = employeeChangeRepository.findMaxSeq();
+        running = true;
+        relayThread = new Thread(this::run, RELAY_THREAD_NAME);
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        relayThread.interrupt();
+        relayThread.join(pollInterval.toMillis() + 1000);
+        if (deliveryExecutor instanceof ExecutorService) {
+            ((ExecutorService) deliveryExecutor).shutdownNow();
+        }
+    }
+
+    // commit 된 변경이 있으면 poll-interval 을 기다리지 않고 relay 한다.
+    @TransactionalEventListener
+    public void onCommitted(EmployeeChangeEvent event) {
+        wakeUp.release();
+    }
+
+    @Override
+    public List<EmployeeChange> getChanges(long since, int limit) {
+        long until = publishedSeq;
+        if (since >= until) {
+            return List.of();
+        }
+        return employeeChangeRepository.findRange(since, until, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Runnable subscribe(Listener listener) {
+        Subscription subscription = new Subscription(listener);
+        subscriptions.add(subscription);
+        return subscription::cancel;
+    }
+
+    // outbox 에서 다음 batch 를 읽어서 발행한다. 발행한 변경 수를 반환한다.
+    // (relay thread 가 호출한다. - test 에서는 직접 호출)
+    public int relay() {
+        Instant now = Instant.now();
+        requeueLateCommits(now);
+
+        long previousSeq = publishedSeq;
+        List<EmployeeChange> changes = contiguous(
+                employeeChangeRepository.findAfter(previousSeq, PageRequest.of(0, batchSize)), previousSeq, now);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        publishedSeq = changes.get(changes.size() - 1).getSeq();
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(previousSeq, changes);
+        }
+        return changes.size();
+    }
+
+    // 빈 seq 앞까지만 발행한다. 빈 seq 다음 row 가 gap-timeout 보다 오래되었으면 빈 seq 를 건너뛰고 skippedGaps 에 기록한다.
+    private List<EmployeeChange> contiguous(List<EmployeeChange> changes, long previousSeq, Instant now) {
+        List<EmployeeChange> result = new ArrayList<>(changes.size());
+        long expected = previousSeq + 1;
+        for (EmployeeChange change : changes) {
+            if (change.getSeq() != expected) {
+                if (change.getChangedAt().plus(gapTimeout).isAfter(now)) {
+                    break;
+                }
+                skippedGaps.add(new Gap(expected - 1, change.getSeq(), now));
+            }
+            result.add(change);
+            expected = change.getSeq() + 1;
+        }
+        return result;
+    }
+
+    // 건너뛴 범위에 그 뒤로 commit 된 변경이 있으면 새 seq 로 다시 기록한다. (이번 relay 의 findAfter 에서 발행된다.)
+    // 다시 기록한 seq 는 table 에서 지워지므로 범위는 gap-retention 이 지날 때까지 그대로 둔다.
+    private void requeueLateCommits(Instant now) {
+        for (Iterator<Gap> iterator = skippedGaps.iterator(); iterator.hasNext(); ) {
+            Gap gap = iterator.next();
+            if (!gap.skippedAt.plus(gapRetention).isAfter(now)) {
+                iterator.remove();
+                continue;
+            }
+            List<EmployeeChange> late = employeeChangeRepository.findRange(gap.since, gap.until - 1, PageRequest.of(0, batchSize));
+            if (!late.isEmpty()) {
+                int requeued = employeeChangeRepository.requeue(late);
+                log.info("employee change seq gap ({}, {}) committed after gap-timeout: {} changes requeued", gap.since, gap.until, requeued);
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // batch 가 가득 찼으면 남은 변경이 더 있으므로 바로 다시 읽는다.
+                if (relay() < batchSize) {
+                    wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("employee change relay failed", e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // 구독 하나 - relay thread 는 queue 에 넣기만 하고, 전달은 deliveryExecutor 에서 한 번에 하나씩 순서대로 한다.
+    private final class Subscription implements Runnable {
+
+        private final Listener listener;
+
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+
+        // 전달 task 가 실행 중이거나 예약되어 있는지 - task 는 구독마다 하나만 돈다. (순서 보장)
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean cancelled;
+
+        private Subscription(Listener listener) {
+            this.listener = listener;
+        }
+
+        // relay thread
+        private void offer(long previousSeq, List<EmployeeChange> changes) {
+            if (cancelled) {
+                return;
+            }
+            if (!queue.offer(new Batch(previousSeq, changes))) {
+                drop();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                Batch batch;
+                while (!cancelled && (batch = queue.poll()) != null) {
+                    try {
+                        listener.onChanges(batch.previousSeq, batch.changes);
+                    } catch (RuntimeException e) {
+                        log.warn("employee change listener failed", e);
+                    }
+                }
+                scheduled.set(false);
+                // 비우고 나서 flag 를 내리기 전에 들어온 batch 가 있으면 이어서 전달한다.
+            } while (!cancelled && !queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        private void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+
+        // 구독자가 subscriber-queue-size batch 만큼 뒤처졌다. - 구독을 해제하고 알려준다.
+        // onDropped 도 deliveryExecutor 에서 호출한다. (전달 중인 socket 쓰기가 막혀 있으면 relay thread 가 기다리게 된다.)
+        private void drop() {
+            cancel();
+            log.warn("employee change subscriber dropped: {} batches behind", subscriberQueueSize);
+            deliveryExecutor.execute(() -> {
+                try {
+                    listener.onDropped();
+                } catch (RuntimeException e) {
+                    log.warn("employee change listener failed", e);
+                }
+            });
+        }
+    }
+
+    private static final class Batch {
+
+        private final long previousSeq;
+
+        private final List<EmployeeChange> changes;
+
+        private Batch(long previousSeq, List<EmployeeChange> changes) {
+            this.previousSeq = previousSeq;
+            this.changes = changes;
+        }
+    }
+
+    // seq 범위 (since, until) - 양 끝은 발행된 seq
+    private static final class Gap {
+
+        private final long since;
+
+        private final long until;
+
+        private final Instant skippedAt;
+
+        private Gap(long since, long until, Instant skippedAt) {
+            this.since = since;
+            this.until = until;
+            this.skippedAt = skippedAt;
+        }
+    }
+}
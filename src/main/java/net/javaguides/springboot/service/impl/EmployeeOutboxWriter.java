@@ -0,0 +1,43 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// EmployeeChangeEvent -> outbox (employee_changes)
+// @EventListener 는 publishEvent() 를 호출한 thread 에서 바로 실행되므로 Employee 변경과 같은 transaction 에서 기록된다.
+// (transaction 이 rollback 되면 outbox row 도 함께 사라진다.)
+@Component
+public class EmployeeOutboxWriter {
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    public EmployeeOutboxWriter(EmployeeChangeRepository employeeChangeRepository) {
+        this.employeeChangeRepository = employeeChangeRepository;
+    }
+
+    @EventListener
+    public void write(EmployeeChangeEvent event) {
+        Instant changedAt = Instant.now();
+        List<EmployeeChange> changes = new ArrayList<>(event.getEmployees().size());
+        for (Employee employee : event.getEmployees()) {
+            changes.add(EmployeeChange.builder()
+                    .employeeId(employee.getId())
+                    .type(event.getType())
+                    .firstName(employee.getFirstName())
+                    .lastName(employee.getLastName())
+                    .email(employee.getEmail())
+                    .version(employee.getVersion())
+                    .changedAt(changedAt)
+                    .build());
+        }
+        employeeChangeRepository.batchInsert(changes);
+    }
+}
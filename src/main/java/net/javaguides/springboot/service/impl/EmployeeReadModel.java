@@ -0,0 +1,495 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+employees 테이블 전체의 in-memory 복제본 - getEmployeeById / email / 이름 조회를 DB(와 cache) 없이 처리한다.
+- id -> Employee (long key), email -> id, (lastName, firstName) -> id 목록 세 개의 index 를 segment 로 나눠서 가진다.
+- segment 는 immutable 이다. 쓰기는 바뀌는 segment 하나만 복사해서 교체하고(copy-on-write), 읽기는 lock 없이 현재 segment 를 읽는다.
+- 시작할 때 streaming scan 으로 적재하고, 이후에는 이 instance 의 EmployeeChangeEvent(commit 후)와 change feed(다른 instance 포함)로 반영한다.
+- email / 이름은 MySQL 기본 collation(_ci) 처럼 대소문자를 구분하지 않는다.
+적재가 끝나기 전(또는 max-size 를 넘어서 적재를 포기한 경우)에는 isReady() 가 false 이고, EmployeeServiceImpl 은 DB 에서 읽는다.
+적재 / 변경 반영 순서는 EmployeeSnapshot 이 맡고, 이 클래스는 segment 만 관리한다.
+*/
+@Component
+public class EmployeeReadModel extends EmployeeSnapshot {
+
+    // segment 수 (2^n) - 쓰기 한 번에 복사하는 크기는 row 수 / SEGMENTS 에 비례한다.
+    static final int SEGMENTS = 1024;
+
+    // row 하나의 고정 메모리 (Employee, Long, Instant 객체, String 3 개의 header, index slot) - 문자열 길이는 따로 더한다.
+    // EmployeeReadModelPerformanceTests 로 측정한 값(slot 이 가장 비어 있는 load factor 0.25 기준)보다 약간 크게 잡았다.
+    static final long ROW_OVERHEAD_BYTES = 480;
+
+    // 삭제된 row 의 slot 하나 (long key, null 참조, long stamp) x load factor 여유
+    static final long TOMBSTONE_BYTES = 64;
+
+    private final AtomicReferenceArray<IdSegment> ids = new AtomicReferenceArray<>(SEGMENTS);
+
+    private final AtomicReferenceArray<KeySegment> emails = new AtomicReferenceArray<>(SEGMENTS);
+
+    private final AtomicReferenceArray<KeySegment> names = new AtomicReferenceArray<>(SEGMENTS);
+
+    private long rows;
+
+    private long bytes;
+
+    public EmployeeReadModel(EmployeeRepository employeeRepository, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectProvider<EmployeeChangeService> changeService,
+                             @Value("${employee.read-model.enabled:false}") boolean enabled,
+                             @Value("${employee.read-model.max-size:512MB}") DataSize maxSize) {
+        super("Employee read model", "employee.read-model",
+                employeeRepository, entityManager, transactionManager, changeService, enabled, maxSize);
+        clear();
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 반환하는 Employee 는 복사본이다. (호출자가 수정해도 read model 에 영향이 없다.)
+    public Optional<Employee> findById(long id) {
+        return Optional.ofNullable(ids.get(segment(id)).get(id)).map(EmployeeReadModel::copy);
+    }
+
+    public Optional<Employee> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String key = emailKey(email);
+        for (long id : emails.get(segment(key)).get(key)) {
+            // index 끼리는 순서대로 교체되므로 잠깐 어긋날 수 있다. -> 찾은 row 의 email 을 다시 확인한다.
+            Employee employee = ids.get(segment(id)).get(id);
+            if (employee != null && email.equalsIgnoreCase(employee.getEmail())) {
+                return Optional.of(copy(employee));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // EmployeeRepository.findAllByJPQL 과 같은 결과 (id 순서)
+    public List<Employee> findByName(String firstName, String lastName) {
+        if (firstName == null || lastName == null) {
+            return List.of();
+        }
+        String key = nameKey(firstName, lastName);
+        long[] matches = names.get(segment(key)).get(key);
+        List<Employee> employees = new ArrayList<>(matches.length);
+        for (long id : matches) {
+            Employee employee = ids.get(segment(id)).get(id);
+            if (employee != null && firstName.equalsIgnoreCase(employee.getFirstName())
+                    && lastName.equalsIgnoreCase(employee.getLastName())) {
+                employees.add(copy(employee));
+            }
+        }
+        return employees;
+    }
+
+    @Override
+    protected Loader newLoader(long scanStamp) {
+        Map<Long, Employee>[] idEntries = newMaps();
+        Map<String, long[]>[] emailEntries = newMaps();
+        Map<String, long[]>[] nameEntries = newMaps();
+        return new Loader() {
+
+            private long loadedRows;
+
+            private long loadedBytes;
+
+            @Override
+            public void add(Employee employee) {
+                Employee row = copy(employee);
+                idEntries[segment(row.getId())].put(row.getId(), row);
+                String emailKey = emailKey(row.getEmail());
+                emailEntries[segment(emailKey)].merge(emailKey, new long[]{row.getId()}, EmployeeReadModel::union);
+                String nameKey = nameKey(row.getFirstName(), row.getLastName());
+                nameEntries[segment(nameKey)].merge(nameKey, new long[]{row.getId()}, EmployeeReadModel::union);
+                loadedRows++;
+                loadedBytes += estimateBytes(row);
+            }
+
+            @Override
+            public long bytes() {
+                return loadedBytes;
+            }
+
+            @Override
+            public void install() {
+                for (int i = 0; i < SEGMENTS; i++) {
+                    ids.set(i, IdSegment.of(idEntries[i], scanStamp));
+                    emails.set(i, KeySegment.of(emailEntries[i]));
+                    names.set(i, KeySegment.of(nameEntries[i]));
+                }
+                rows = loadedRows;
+                bytes = loadedBytes;
+            }
+        };
+    }
+
+    @Override
+    protected void put(long id, Employee changed, long stamp) {
+        int segment = segment(id);
+        IdSegment idSegment = ids.get(segment);
+        if (stamp < idSegment.stamp(id)) {
+            return;
+        }
+
+        Employee employee = changed == null ? null : copy(changed);
+        Employee previous = idSegment.get(id);
+        String previousEmail = previous == null ? null : emailKey(previous.getEmail());
+        String previousName = previous == null ? null : nameKey(previous.getFirstName(), previous.getLastName());
+        String email = employee == null ? null : emailKey(employee.getEmail());
+        String name = employee == null ? null : nameKey(employee.getFirstName(), employee.getLastName());
+
+        // 새 key 를 먼저 추가하고 이전 key 는 마지막에 지운다. - 읽는 쪽은 찾은 row 의 값을 다시 확인한다.
+        if (email != null && !email.equals(previousEmail)) {
+            emails.set(segment(email), emails.get(segment(email)).with(email, id));
+        }
+        if (name != null && !name.equals(previousName)) {
+            names.set(segment(name), names.get(segment(name)).with(name, id));
+        }
+        IdSegment changedSegment = idSegment.with(id, employee, stamp, appliedStamp());
+        ids.set(segment, changedSegment);
+        if (previousEmail != null && !previousEmail.equals(email)) {
+            emails.set(segment(previousEmail), emails.get(segment(previousEmail)).without(previousEmail, id));
+        }
+        if (previousName != null && !previousName.equals(name)) {
+            names.set(segment(previousName), names.get(segment(previousName)).without(previousName, id));
+        }
+
+        rows += (employee == null ? 0 : 1) - (previous == null ? 0 : 1);
+        bytes += estimateBytes(employee) - estimateBytes(previous)
+                + TOMBSTONE_BYTES * (changedSegment.tombstones - idSegment.tombstones);
+    }
+
+    @Override
+    protected void clear() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            ids.set(i, IdSegment.EMPTY);
+            emails.set(i, KeySegment.EMPTY);
+            names.set(i, KeySegment.EMPTY);
+        }
+        rows = 0;
+        bytes = 0;
+    }
+
+    // Latin-1 문자열 기준 (compact strings) - Employee 의 세 필드와 email / 이름 index key
+    static long estimateBytes(Employee employee) {
+        if (employee == null) {
+            return 0;
+        }
+        long nameLength = length(employee.getFirstName()) + length(employee.getLastName());
+        return ROW_OVERHEAD_BYTES + 2 * nameLength + length(employee.getEmail());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static Employee copy(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .updatedAt(employee.getUpdatedAt())
+                .build();
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? "" : email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String firstName, String lastName) {
+        return (lastName + '\u0000' + firstName).toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] union(long[] ids, long[] more) {
+        long[] merged = Arrays.copyOf(ids, ids.length + more.length);
+        System.arraycopy(more, 0, merged, ids.length, more.length);
+        return merged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] newMaps() {
+        Map<K, V>[] maps = new Map[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            maps[i] = new HashMap<>();
+        }
+        return maps;
+    }
+
+    // 상위 bit 로 segment 를, 하위 bit 로 segment 안의 slot 을 고른다.
+    private static int segment(long id) {
+        return (int) (Hashes.mix(id) >>> 54) & (SEGMENTS - 1);
+    }
+
+    private static int segment(String key) {
+        return segment((long) key.hashCode());
+    }
+
+    /*
+    long id -> (Employee, stamp) open addressing table (linear probing, load factor <= 0.5)
+    key 0 은 빈 slot 이다. (IDENTITY id 는 1 부터 시작한다.) value 가 null 인 slot 은 삭제된 row (tombstone)
+    tombstone 이 있는 segment 는 복사할 때 다시 만들면서 purgeUpTo 이하 번호의 tombstone 을 뺀다. (어차피 전체를 복사하므로 추가 비용이 없다.)
+    */
+    private static final class IdSegment {
+
+        static final IdSegment EMPTY = new IdSegment(new long[2], new Employee[2], new long[2], 0, 0);
+
+        private final long[] keys;
+
+        private final Employee[] values;
+
+        private final long[] stamps;
+
+        // tombstone 을 포함한 slot 수
+        private final int size;
+
+        private final int tombstones;
+
+        private IdSegment(long[] keys, Employee[] values, long[] stamps, int size, int tombstones) {
+            this.keys = keys;
+            this.values = values;
+            this.stamps = stamps;
+            this.size = size;
+            this.tombstones = tombstones;
+        }
+
+        static IdSegment of(Map<Long, Employee> entries, long stamp) {
+            IdSegment segment = new IdSegment(new long[capacity(entries.size())], new Employee[capacity(entries.size())],
+                    new long[capacity(entries.size())], entries.size(), 0);
+            entries.forEach((id, employee) -> segment.insert(id, employee, stamp));
+            return segment;
+        }
+
+        Employee get(long id) {
+            int slot = find(id);
+            return slot < 0 ? null : values[slot];
+        }
+
+        // 반영된 적 없는 id 는 Long.MIN_VALUE
+        long stamp(long id) {
+            int slot = find(id);
+            return slot < 0 ? Long.MIN_VALUE : stamps[slot];
+        }
+
+        // purgeUpTo : 이 번호 이하의 tombstone 은 뺀다. (EmployeeSnapshot.appliedStamp)
+        IdSegment with(long id, Employee employee, long stamp, long purgeUpTo) {
+            if (tombstones > 0) {
+                return rehash(id, employee, stamp, purgeUpTo);
+            }
+            int newSize = find(id) < 0 ? size + 1 : size;
+            int newTombstones = employee == null ? 1 : 0;
+            int capacity = Math.max(keys.length, capacity(newSize));
+            IdSegment copy = capacity == keys.length
+                    ? new IdSegment(keys.clone(), values.clone(), stamps.clone(), newSize, newTombstones)
+                    : rehash(capacity, newSize, newTombstones, Long.MIN_VALUE, id);
+            copy.insert(id, employee, stamp);
+            return copy;
+        }
+
+        // purgeUpTo 이하의 tombstone 을 빼고 다시 만든다. (지운 만큼 capacity 도 줄어든다.)
+        private IdSegment rehash(long id, Employee employee, long stamp, long purgeUpTo) {
+            int kept = 0;
+            int keptTombstones = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && keys[i] != id && !purgeable(i, purgeUpTo)) {
+                    kept++;
+                    keptTombstones += values[i] == null ? 1 : 0;
+                }
+            }
+            int newSize = kept + 1;
+            IdSegment copy = rehash(capacity(newSize), newSize, keptTombstones + (employee == null ? 1 : 0), purgeUpTo, id);
+            copy.insert(id, employee, stamp);
+            return copy;
+        }
+
+        private IdSegment rehash(int capacity, int newSize, int newTombstones, long purgeUpTo, long skip) {
+            IdSegment copy = new IdSegment(new long[capacity], new Employee[capacity], new long[capacity], newSize, newTombstones);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0 && keys[i] != skip && !purgeable(i, purgeUpTo)) {
+                    copy.insert(keys[i], values[i], stamps[i]);
+                }
+            }
+            return copy;
+        }
+
+        private boolean purgeable(int slot, long purgeUpTo) {
+            return values[slot] == null && stamps[slot] <= purgeUpTo;
+        }
+
+        // 새로 만든 (아직 공개되지 않은) segment 에만 호출한다.
+        private void insert(long id, Employee employee, long stamp) {
+            int mask = keys.length - 1;
+            int slot = (int) Hashes.mix(id) & mask;
+            while (keys[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id;
+            values[slot] = employee;
+            stamps[slot] = stamp;
+        }
+
+        private int find(long id) {
+            int mask = keys.length - 1;
+            int slot = (int) Hashes.mix(id) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == id) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    // String key -> id 목록 open addressing table (email 은 id 하나, 이름은 동명이인이 있으면 여러 개 - id 순서)
+    private static final class KeySegment {
+
+        private static final long[] NONE = new long[0];
+
+        static final KeySegment EMPTY = new KeySegment(new String[2], new long[2][], 0);
+
+        private final String[] keys;
+
+        private final long[][] ids;
+
+        private final int size;
+
+        private KeySegment(String[] keys, long[][] ids, int size) {
+            this.keys = keys;
+            this.ids = ids;
+            this.size = size;
+        }
+
+        static KeySegment of(Map<String, long[]> entries) {
+            KeySegment segment = new KeySegment(new String[capacity(entries.size())], new long[capacity(entries.size())][],
+                    entries.size());
+            entries.forEach((key, ids) -> {
+                Arrays.sort(ids);
+                segment.insert(key, ids);
+            });
+            return segment;
+        }
+
+        long[] get(String key) {
+            int slot = find(key);
+            return slot < 0 ? NONE : ids[slot];
+        }
+
+        KeySegment with(String key, long id) {
+            int slot = find(key);
+            if (slot >= 0) {
+                long[] current = ids[slot];
+                int index = Arrays.binarySearch(current, id);
+                if (index >= 0) {
+                    return this;
+                }
+                long[] added = new long[current.length + 1];
+                int at = -index - 1;
+                System.arraycopy(current, 0, added, 0, at);
+                added[at] = id;
+                System.arraycopy(current, at, added, at + 1, current.length - at);
+                return copy(keys.length, key, added, size);
+            }
+            return copy(Math.max(keys.length, capacity(size + 1)), key, new long[]{id}, size + 1);
+        }
+
+        KeySegment without(String key, long id) {
+            int slot = find(key);
+            if (slot < 0) {
+                return this;
+            }
+            long[] current = ids[slot];
+            int index = Arrays.binarySearch(current, id);
+            if (index < 0) {
+                return this;
+            }
+            if (current.length > 1) {
+                long[] removed = new long[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, index);
+                System.arraycopy(current, index + 1, removed, index, current.length - index - 1);
+                return copy(keys.length, key, removed, size);
+            }
+            // linear probing 에서는 slot 을 비울 수 없으므로 key 를 뺀 나머지로 다시 만든다.
+            return copy(keys.length, key, null, size - 1);
+        }
+
+        // key 의 id 목록을 바꾼 복사본 (ids 가 null 이면 key 를 뺀다.)
+        private KeySegment copy(int capacity, String key, long[] keyIds, int newSize) {
+            KeySegment copy = new KeySegment(new String[capacity], new long[capacity][], newSize);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null && !keys[i].equals(key)) {
+                    copy.insert(keys[i], ids[i]);
+                }
+            }
+            if (keyIds != null) {
+                copy.insert(key, keyIds);
+            }
+            return copy;
+        }
+
+        private void insert(String key, long[] keyIds) {
+            int mask = keys.length - 1;
+            int slot = (int) Hashes.mix(key.hashCode()) & mask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            ids[slot] = keyIds;
+        }
+
+        private int find(String key) {
+            int mask = keys.length - 1;
+            int slot = (int) Hashes.mix(key.hashCode()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    // load factor 0.5 이하가 되는 2^n
+    private static int capacity(int size) {
+        return Math.max(2, Integer.highestOneBit(Math.max(1, size * 2 - 1)) << 1);
+    }
+}
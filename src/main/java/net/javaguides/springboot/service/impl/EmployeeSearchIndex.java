@@ -0,0 +1,608 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+
+/*
+typeahead 검색 index - GET /api/employees/search?q= 를 DB 의 LIKE '%q%' (full scan) 없이 memory 에서 처리한다.
+- 단어 index : firstName, lastName, email 의 local part(@ 앞) 와 그 안의 단어 (공백 . _ - + 등으로 나눈 조각) -> slot 목록
+  정렬된 skip list 이므로 prefix 검색은 tailMap 에서 limit 만큼만 읽는다.
+- trigram index : "first\u0001last\u0001email" 의 3 글자 조각 -> slot 목록 (infix 검색, 3 글자 이상)
+- 순위 : 단어와 같음 -> 단어의 prefix (단어 순서) -> infix (index 순서), limit 개에서 자른다.
+- 검색어에 공백이 있으면 가장 긴 단어로 찾고 나머지 단어는 모두 포함하는 row 만 남긴다.
+- 대소문자를 구분하지 않는다. (MySQL 기본 collation 처럼)
+slot 은 끝에만 추가한다. 수정은 새 slot 을 추가하고 이전 slot 을 지운다. (slot 목록은 정렬된 채로 끝에만 늘어나므로 읽기는 lock 없이 한다.)
+지운 slot 이 살아 있는 row 보다 많아지면 memory 에서 다시 만든다. (compact)
+- 전체를 복사하는 동안(1M rows 약 10 초) 쓰기를 막지 않도록 lock 밖의 별도 thread 에서 만들고,
+  교체할 때만 lock 을 잡고 그 사이에 지워지거나 추가된 slot 을 반영한다.
+적재 / 변경 반영 순서(stamp) 는 EmployeeSnapshot 이 맡는다. - 시작할 때 streaming scan, 이후에는 EmployeeChangeEvent(commit 후)와 change feed
+검색 결과는 id 목록이다. Employee 는 EmployeeServiceImpl 이 read model / id cache / IN 쿼리로 읽는다.
+*/
+@Component
+public class EmployeeSearchIndex extends EmployeeSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    // 한 번의 검색에서 확인하는 최대 slot 수 - 넘으면 그때까지 찾은 결과만 돌려준다.
+    // (흔한 조각끼리의 드문 조합처럼 후보는 많고 결과는 적은 검색의 시간 상한)
+    static final int MAX_CANDIDATES = 20_000;
+
+    // row 하나의 고정 메모리 (slot, Doc, 문자열 header, id -> slot table, 단어 skip list node) - 문자열 길이 만큼은 따로 더한다.
+    // EmployeeSearchIndexPerformanceTests 로 측정한 값보다 약간 크게 잡았다.
+    static final long ROW_OVERHEAD_BYTES = 240;
+
+    // 글자 하나의 메모리 (검색 문자열, 단어 key, trigram slot 목록의 int 와 여유 공간)
+    static final long BYTES_PER_CHAR = 8;
+
+    // 삭제된 row 의 id -> slot 항목 하나 (long key, int slot, long stamp) x load factor 여유
+    static final long TOMBSTONE_BYTES = 48;
+
+    // 지운 slot 이 이보다 적으면 compact 하지 않는다.
+    static final int MIN_COMPACT_SLOTS = 1024;
+
+    static final String COMPACTION_THREAD_NAME = "employee-search-compaction";
+
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    // 검색은 이 참조를 한 번 읽어서 사용한다. (적재 / compact 는 새 Index 로 교체)
+    private volatile Index index = new Index();
+
+    // id -> (slot, stamp) - 쓰기에서만 사용한다.
+    private IdSlots idSlots = new IdSlots();
+
+    // compact 로 새 Index 를 만드는 thread
+    private final Executor compactionExecutor;
+
+    // compact 가 실행 중이면 true - lock 안에서만 읽고 쓴다.
+    private boolean compacting;
+
+    @Autowired
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               ObjectProvider<EmployeeChangeService> changeService,
+                               @Value("${employee.search.enabled:false}") boolean enabled,
+                               @Value("${employee.search.max-size:1GB}") DataSize maxSize) {
+        this(employeeRepository, entityManager, transactionManager, changeService, enabled, maxSize, command -> {
+            Thread thread = new Thread(command, COMPACTION_THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    // compactionExecutor : compact 를 실행한다. (test 에서는 Runnable::run 으로 바로 실행)
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               ObjectProvider<EmployeeChangeService> changeService,
+                               boolean enabled, DataSize maxSize, Executor compactionExecutor) {
+        super("Employee search index", "employee.search",
+                employeeRepository, entityManager, transactionManager, changeService, enabled, maxSize);
+        this.compactionExecutor = compactionExecutor;
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return index.slots - index.deadSlots;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // compact 전까지는 지운 slot 도 포함한다. (삭제된 row 의 tombstone 포함)
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return index.bytes + TOMBSTONE_BYTES * idSlots.tombstones;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 순위대로 최대 limit 개의 id
+    public List<Long> search(String query, int limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        // 가장 긴 단어가 후보가 가장 적다.
+        String driver = terms[0];
+        for (String term : terms) {
+            if (term.length() > driver.length()) {
+                driver = term;
+            }
+        }
+        Matches matches = new Matches(index, terms, limit);
+
+        for (Map.Entry<String, Posting> word : matches.index.words.tailMap(driver).entrySet()) {
+            if (!word.getKey().startsWith(driver)) {
+                break;
+            }
+            if (!matches.scan(word.getValue(), null)) {
+                return matches.ids;
+            }
+        }
+
+        if (driver.length() >= 3) {
+            // 가장 짧은 trigram slot 목록을 읽고 문자열에 검색어가 있는지 확인한다. (조각이 하나라도 없으면 infix 결과도 없다.)
+            Posting rarest = null;
+            for (long gram : grams(driver)) {
+                Posting posting = matches.index.grams.get(gram);
+                if (posting == null) {
+                    return matches.ids;
+                }
+                if (rarest == null || posting.size < rarest.size) {
+                    rarest = posting;
+                }
+            }
+            matches.scan(rarest, driver);
+        }
+        return matches.ids;
+    }
+
+    @Override
+    protected Loader newLoader(long scanStamp) {
+        Index loaded = new Index();
+        IdSlots loadedSlots = new IdSlots();
+        return new Loader() {
+
+            @Override
+            public void add(Employee employee) {
+                loadedSlots.put(employee.getId(), loaded.add(employee.getId(), text(employee)), scanStamp, Long.MIN_VALUE);
+            }
+
+            @Override
+            public long bytes() {
+                return loaded.bytes;
+            }
+
+            @Override
+            public void install() {
+                index = loaded;
+                idSlots = loadedSlots;
+            }
+        };
+    }
+
+    // 보관하는 것은 검색 문자열뿐이므로 employee 를 복사하지 않는다.
+    @Override
+    protected void put(long id, Employee employee, long stamp) {
+        if (stamp < idSlots.stamp(id)) {
+            return;
+        }
+
+        int previous = idSlots.slot(id);
+        String text = employee == null ? null : text(employee);
+        Index current = index;
+        long purgeUpTo = appliedStamp();
+        if (previous >= 0 && text != null && text.equals(current.doc(previous).text)) {
+            // 검색하는 값이 바뀌지 않은 수정 (version / updatedAt 만 바뀜)
+            idSlots.put(id, previous, stamp, purgeUpTo);
+            return;
+        }
+
+        // 새 slot 을 먼저 추가하고 이전 slot 은 마지막에 지운다. - 검색은 같은 id 를 한 번만 돌려준다.
+        idSlots.put(id, text == null ? -1 : current.add(id, text), stamp, purgeUpTo);
+        if (previous >= 0) {
+            current.remove(previous);
+        }
+    }
+
+    // 지운 slot 이 살아 있는 slot 보다 많아지면 compact 를 시작한다. (한 번에 하나)
+    @Override
+    protected void afterApply() {
+        Index current = index;
+        if (!compacting && current.deadSlots >= MIN_COMPACT_SLOTS && current.deadSlots > current.slots - current.deadSlots) {
+            compacting = true;
+            int copied = current.slots;
+            compactionExecutor.execute(() -> compact(current, copied));
+        }
+    }
+
+    @Override
+    protected void clear() {
+        index = new Index();
+        idSlots = new IdSlots();
+    }
+
+    /*
+    source 의 slot [0, copied) 중 살아 있는 slot 만으로 새 Index 를 만들어서 교체한다. (DB 를 읽지 않는다. 검색은 교체 전까지 이전 Index 를 읽는다.)
+    만드는 동안은 lock 을 잡지 않으므로 쓰기는 계속 source 에 반영된다. 교체할 때 lock 안에서
+    - 복사한 뒤에 지워진 slot 을 새 Index 에서도 지우고
+    - 복사를 시작한 뒤에 추가된 slot [copied, source.slots) 를 새 Index 에 추가하고
+    - id -> slot 을 새 slot 번호로 바꾼다. (반영이 끝난 번호(appliedStamp)의 tombstone 은 뺀다.)
+    그 사이에 다시 적재되었거나 비워졌으면(index 가 바뀜) 버린다.
+    */
+    private void compact(Index source, int copied) {
+        long start = System.nanoTime();
+        Index compacted = new Index();
+        // 이전 slot -> 새 slot (-1 : 지운 slot)
+        int[] moved = new int[copied];
+        for (int slot = 0; slot < copied; slot++) {
+            Doc doc = source.doc(slot);
+            moved[slot] = doc == null ? -1 : compacted.add(doc.id, doc.text);
+        }
+        long built = System.nanoTime();
+
+        lock.lock();
+        try {
+            compacting = false;
+            if (index != source) {
+                return;
+            }
+            for (int slot = 0; slot < copied; slot++) {
+                if (moved[slot] >= 0 && source.doc(slot) == null) {
+                    compacted.remove(moved[slot]);
+                }
+            }
+            moved = Arrays.copyOf(moved, source.slots);
+            for (int slot = copied; slot < source.slots; slot++) {
+                Doc doc = source.doc(slot);
+                moved[slot] = doc == null ? -1 : compacted.add(doc.id, doc.text);
+            }
+            idSlots = idSlots.moved(moved, appliedStamp());
+            index = compacted;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Employee search index compacted: {} -> {} slots in {} ms ({} ms under lock)",
+                source.slots, compacted.slots, (System.nanoTime() - start) / 1_000_000, (System.nanoTime() - built) / 1_000_000);
+    }
+
+    static long estimateBytes(String text) {
+        return ROW_OVERHEAD_BYTES + BYTES_PER_CHAR * text.length();
+    }
+
+    // 검색 대상 문자열 - 세 필드를 소문자로 바꿔서 FIELD_SEPARATOR 로 잇는다. (infix 가 필드 경계를 넘어서 맞지 않도록)
+    private static String text(Employee employee) {
+        return (value(employee.getFirstName()) + FIELD_SEPARATOR + value(employee.getLastName())
+                + FIELD_SEPARATOR + value(employee.getEmail())).toLowerCase(Locale.ROOT);
+    }
+
+    private static String value(String value) {
+        return value == null ? "" : value.replace(FIELD_SEPARATOR, ' ');
+    }
+
+    // 검색어 -> 소문자 단어 목록 (공백 / 제어 문자로 나눈다.)
+    private static String[] terms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : query.toLowerCase(Locale.ROOT).split("[\\s\\p{Cntrl}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    // 단어 index 의 key - firstName, lastName, email 의 local part 와 그 안의 단어 (중복 제거)
+    private static List<String> words(String text) {
+        int first = text.indexOf(FIELD_SEPARATOR);
+        int second = text.indexOf(FIELD_SEPARATOR, first + 1);
+        String email = text.substring(second + 1);
+        int at = email.indexOf('@');
+
+        List<String> words = new ArrayList<>(6);
+        addWords(words, text.substring(0, first));
+        addWords(words, text.substring(first + 1, second));
+        addWords(words, at < 0 ? email : email.substring(0, at));
+        return words;
+    }
+
+    private static void addWords(List<String> words, String field) {
+        addWord(words, field);
+        int start = -1;
+        for (int i = 0; i <= field.length(); i++) {
+            boolean wordChar = i < field.length() && Character.isLetterOrDigit(field.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (start > 0 || i < field.length()) {
+                    addWord(words, field.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+    }
+
+    private static void addWord(List<String> words, String word) {
+        if (!word.isEmpty() && !words.contains(word)) {
+            words.add(word);
+        }
+    }
+
+    // 중복 없는 trigram 목록 (FIELD_SEPARATOR 를 포함한 조각은 뺀다.)
+    private static long[] grams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a != FIELD_SEPARATOR && b != FIELD_SEPARATOR && c != FIELD_SEPARATOR) {
+                grams[count++] = ((long) a << 32) | ((long) b << 16) | c;
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || grams[unique - 1] != grams[i]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+
+    // 검색 하나의 결과 - 같은 id 는 한 번만 (수정 직후에는 이전 slot 과 새 slot 이 잠깐 같이 보인다.)
+    private static final class Matches {
+
+        private final Index index;
+
+        private final String[] terms;
+
+        private final int limit;
+
+        private final List<Long> ids;
+
+        private int budget = MAX_CANDIDATES;
+
+        private Matches(Index index, String[] terms, int limit) {
+            this.index = index;
+            this.terms = terms;
+            this.limit = limit;
+            this.ids = new ArrayList<>(limit);
+        }
+
+        // false 이면 더 찾지 않는다. (limit 또는 MAX_CANDIDATES 도달)
+        // 단어 index 에서 찾은 slot 은 그 단어를 가진 row 이므로 나머지 단어만 확인한다.
+        boolean scan(Posting posting, String infix) {
+            int size = posting.size;
+            int[] slots = posting.slots;
+            for (int i = 0; i < size; i++) {
+                if (--budget < 0) {
+                    return false;
+                }
+                Doc doc = index.doc(slots[i]);
+                if (doc == null || (infix != null && !doc.text.contains(infix)) || !containsTerms(doc.text)
+                        || ids.contains(doc.id)) {
+                    continue;
+                }
+                ids.add(doc.id);
+                if (ids.size() == limit) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean containsTerms(String text) {
+            for (String term : terms) {
+                if (!text.contains(term)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /*
+    slot -> Doc, 단어 -> slot 목록, trigram -> slot 목록
+    쓰기(add / remove)는 EmployeeSearchIndex 의 lock 안에서 한 thread 만 한다. 검색은 lock 없이 읽는다.
+    (compact 가 만드는 새 Index 는 교체 전까지 compact thread 만 쓴다.)
+    - slot 목록에 slot 을 추가하기 전에 Doc 을 먼저 기록하므로, 검색이 찾은 slot 의 Doc 은 항상 보인다.
+    - 지운 slot 은 null 이다. (slot 목록에는 compact 전까지 남는다.)
+    */
+    private static final class Index {
+
+        private volatile Doc[] docs = new Doc[16];
+
+        private final ConcurrentSkipListMap<String, Posting> words = new ConcurrentSkipListMap<>();
+
+        private final ConcurrentHashMap<Long, Posting> grams = new ConcurrentHashMap<>();
+
+        private int slots;
+
+        private int deadSlots;
+
+        private long bytes;
+
+        Doc doc(int slot) {
+            Doc[] current = docs;
+            return slot < current.length ? current[slot] : null;
+        }
+
+        int add(long id, String text) {
+            int slot = slots++;
+            Doc[] current = docs;
+            if (slot == current.length) {
+                current = Arrays.copyOf(current, current.length + (current.length >> 1));
+                docs = current;
+            }
+            current[slot] = new Doc(id, text);
+            for (String word : words(text)) {
+                words.computeIfAbsent(word, key -> new Posting()).add(slot);
+            }
+            for (long gram : grams(text)) {
+                grams.computeIfAbsent(gram, key -> new Posting()).add(slot);
+            }
+            bytes += estimateBytes(text);
+            return slot;
+        }
+
+        void remove(int slot) {
+            docs[slot] = null;
+            deadSlots++;
+        }
+    }
+
+    private static final class Doc {
+
+        private final long id;
+
+        private final String text;
+
+        private Doc(long id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    // 오름차순 slot 목록 - 쓰기 thread 하나가 끝에만 추가한다. 읽기는 size 를 먼저 읽고 그만큼만 읽는다.
+    private static final class Posting {
+
+        private volatile int[] slots = new int[1];
+
+        private volatile int size;
+
+        void add(int slot) {
+            int[] current = slots;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length + (current.length >> 1) + 1);
+                slots = current;
+            }
+            current[size] = slot;
+            size = size + 1;
+        }
+    }
+
+    /*
+    id -> (slot, stamp) open addressing table (key 0 은 빈 slot) - slot -1 은 삭제된 row (tombstone)
+    table 을 늘릴 때와 compact 할 때 purgeUpTo (EmployeeSnapshot.appliedStamp) 이하 번호의 tombstone 을 뺀다.
+    */
+    private static final class IdSlots {
+
+        private long[] keys = new long[16];
+
+        private int[] slots = new int[16];
+
+        private long[] stamps = new long[16];
+
+        // tombstone 을 포함한 항목 수
+        private int size;
+
+        private int tombstones;
+
+        int slot(long id) {
+            int i = find(id);
+            return i < 0 ? -1 : slots[i];
+        }
+
+        // 반영된 적 없는 id 는 Long.MIN_VALUE
+        long stamp(long id) {
+            int i = find(id);
+            return i < 0 ? Long.MIN_VALUE : stamps[i];
+        }
+
+        void put(long id, int slot, long stamp, long purgeUpTo) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(purgeUpTo);
+            }
+            int i = probe(id);
+            if (keys[i] == 0) {
+                keys[i] = id;
+                size++;
+            } else if (slots[i] < 0) {
+                tombstones--;
+            }
+            if (slot < 0) {
+                tombstones++;
+            }
+            slots[i] = slot;
+            stamps[i] = stamp;
+        }
+
+        // slot 번호를 moved[slot] 으로 바꾸고 purgeUpTo 이하의 tombstone 을 뺀 복사본 (compact)
+        IdSlots moved(int[] moved, long purgeUpTo) {
+            IdSlots copy = new IdSlots();
+            copy.copyFrom(this, purgeUpTo);
+            for (int i = 0; i < copy.keys.length; i++) {
+                if (copy.keys[i] != 0 && copy.slots[i] >= 0) {
+                    copy.slots[i] = moved[copy.slots[i]];
+                }
+            }
+            return copy;
+        }
+
+        // 뺄 수 있는 tombstone 을 빼고 남은 항목 수에 맞춰 다시 만든다. (뺄 것이 없으면 두 배로 늘어난다.)
+        private void rehash(long purgeUpTo) {
+            IdSlots old = new IdSlots();
+            old.keys = keys;
+            old.slots = slots;
+            old.stamps = stamps;
+            old.size = size;
+            copyFrom(old, purgeUpTo);
+        }
+
+        private void copyFrom(IdSlots source, long purgeUpTo) {
+            int kept = 0;
+            for (int i = 0; i < source.keys.length; i++) {
+                if (source.keys[i] != 0 && !source.purgeable(i, purgeUpTo)) {
+                    kept++;
+                }
+            }
+            int capacity = 16;
+            while ((kept + 1) * 2 > capacity) {
+                capacity *= 2;
+            }
+            keys = new long[capacity];
+            slots = new int[capacity];
+            stamps = new long[capacity];
+            size = 0;
+            tombstones = 0;
+            for (int i = 0; i < source.keys.length; i++) {
+                if (source.keys[i] != 0 && !source.purgeable(i, purgeUpTo)) {
+                    int j = probe(source.keys[i]);
+                    keys[j] = source.keys[i];
+                    slots[j] = source.slots[i];
+                    stamps[j] = source.stamps[i];
+                    size++;
+                    tombstones += source.slots[i] < 0 ? 1 : 0;
+                }
+            }
+        }
+
+        private boolean purgeable(int i, long purgeUpTo) {
+            return slots[i] < 0 && stamps[i] <= purgeUpTo;
+        }
+
+        private int find(long id) {
+            int i = probe(id);
+            return keys[i] == 0 ? -1 : i;
+        }
+
+        private int probe(long id) {
+            int mask = keys.length - 1;
+            int i = (int) Hashes.mix(id) & mask;
+            while (keys[i] != 0 && keys[i] != id) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+}
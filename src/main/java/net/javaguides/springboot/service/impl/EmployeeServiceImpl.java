@@ -1,51 +1,509 @@
 package net.javaguides.springboot.service.impl;
 
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.config.PrimaryReads;
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeeDeleteResult;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeField;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.EmployeeVersionView;
 import net.javaguides.springboot.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // 한 페이지에서 반환할 수 있는 최대 row 수
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // 중복 email 검사 / 여러 건 조회, 삭제의 IN (...) 절에 한 번에 넣는 최대 개수
+    static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    // typeahead 검색 한 번에 반환할 수 있는 최대 row 수
+    static final int MAX_SEARCH_RESULTS = 50;
+
     private final EmployeeRepository employeeRepository;
 
+    private final EntityManager entityManager;
+
+    private final EmailBloomFilter emailBloomFilter;
+
+    // 생성/수정/삭제마다 EmployeeChangeEvent 를 발행한다. -> 같은 transaction 에서 outbox 기록 (EmployeeOutboxWriter)
+    private final ApplicationEventPublisher eventPublisher;
+
+    // employee.read-model.enabled=true 이고 적재가 끝났으면 id / email / 이름 조회를 DB 없이 처리한다.
+    private final EmployeeReadModel employeeReadModel;
+
+    // getEmployeeById 의 id cache - 여러 건 조회(getEmployeesByIds)도 같은 cache 를 먼저 찾는다.
+    private final CacheManager cacheManager;
+
+    // employee.search.enabled=true 이고 적재가 끝났으면 typeahead 검색을 처리한다.
+    private final EmployeeSearchIndex employeeSearchIndex;
+
     // we have created the EmployeeServiceImpl constructor with EmployeeRepository as an argument
     // @Autowired 생략 - 단일 생성자인 경우 @Autowired 어노테이션 사용할 필요 없다. (종속성을 자동으로 감지하고 주입)
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) { // 생성자 기반 종속성 주입 사용
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               EmailBloomFilter emailBloomFilter, ApplicationEventPublisher eventPublisher,
+                               EmployeeReadModel employeeReadModel, CacheManager cacheManager,
+                               EmployeeSearchIndex employeeSearchIndex) { // 생성자 기반 종속성 주입 사용
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.emailBloomFilter = emailBloomFilter;
+        this.eventPublisher = eventPublisher;
+        this.employeeReadModel = employeeReadModel;
+        this.cacheManager = cacheManager;
+        this.employeeSearchIndex = employeeSearchIndex;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if(savedEmployee.isPresent()) { // If a value is present, returns true, otherwise false.
-            throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
+        // Bloom filter 가 "확실히 없는 email" 이라고 하면 중복 검사 SELECT 를 생략한다. (filter 가 꺼져 있으면 항상 검사)
+        if (emailBloomFilter.mightContain(employee.getEmail())) {
+            Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+            if(savedEmployee.isPresent()) { // If a value is present, returns true, otherwise false.
+                throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail());
+            }
+        }
+
+        Employee savedEmployee = saveUnique(employee);
+        emailBloomFilter.put(savedEmployee.getEmail());
+        eventPublisher.publishEvent(EmployeeChangeEvent.created(List.of(savedEmployee)));
+        return savedEmployee;
+    }
+
+    // 동시에 같은 email 로 저장하는 경우는 unique index 위반으로 드러난다. -> 기존 중복 email 예외로 변환
+    private Employee saveUnique(Employee employee) {
+        try {
+            return employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateEmails.isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail(), e);
+            }
+            throw e;
+        }
+    }
+
+    // 여러 employee 를 한 트랜잭션에서 저장한다.
+    // 중복 검사는 IN 쿼리(chunk 단위)로 한 번에 하고, insert 는 JDBC batch 로 보낸다.
+    // 실패한 row 는 요청 배열의 index 와 사유를 담아 돌려주고 나머지는 저장한다.
+    @Override
+    @Transactional
+    public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+        List<EmployeeBatchResult.Failure> failed = new ArrayList<>();
+        List<Employee> candidates = new ArrayList<>(employees.size());
+        List<Integer> candidateIndexes = new ArrayList<>(employees.size());
+
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee.getEmail() == null || employee.getFirstName() == null || employee.getLastName() == null) {
+                failed.add(new EmployeeBatchResult.Failure(i, employee.getEmail(), "firstName, lastName and email are required"));
+            } else if (!emails.add(employee.getEmail())) {
+                failed.add(new EmployeeBatchResult.Failure(i, employee.getEmail(), "Duplicate email in request:" + employee.getEmail()));
+            } else {
+                candidates.add(employee);
+                candidateIndexes.add(i);
+            }
         }
 
-        return employeeRepository.save(employee);
+        // Bloom filter 에 없는 email 은 IN 쿼리에서도 제외한다.
+        Set<String> existingEmails = new HashSet<>();
+        List<String> emailList = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            if (emailBloomFilter.mightContain(email)) {
+                emailList.add(email);
+            }
+        }
+        for (int from = 0; from < emailList.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, emailList.size());
+            existingEmails.addAll(employeeRepository.findExistingEmails(emailList.subList(from, to)));
+        }
+
+        List<Employee> toInsert = new ArrayList<>(candidates.size());
+        List<Integer> toInsertIndexes = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Employee employee = candidates.get(i);
+            if (existingEmails.contains(employee.getEmail())) {
+                failed.add(new EmployeeBatchResult.Failure(candidateIndexes.get(i), employee.getEmail(),
+                        "Employee already exist with given email:" + employee.getEmail()));
+            } else {
+                toInsert.add(employee);
+                toInsertIndexes.add(candidateIndexes.get(i));
+            }
+        }
+
+        List<Employee> created = toInsert.isEmpty() ? toInsert : employeeRepository.batchInsert(toInsert);
+        // IN 쿼리 이후에 다른 요청이 먼저 저장한 email 은 batchInsert 가 건너뛴다. -> 같은 사유의 실패로 돌려준다.
+        if (created.size() < toInsert.size()) {
+            Set<Employee> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+            inserted.addAll(created);
+            for (int i = 0; i < toInsert.size(); i++) {
+                Employee employee = toInsert.get(i);
+                if (!inserted.contains(employee)) {
+                    failed.add(new EmployeeBatchResult.Failure(toInsertIndexes.get(i), employee.getEmail(),
+                            "Employee already exist with given email:" + employee.getEmail()));
+                }
+            }
+        }
+        created.forEach(employee -> emailBloomFilter.put(employee.getEmail()));
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(EmployeeChangeEvent.created(created));
+        }
+        failed.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return new EmployeeBatchResult(created, failed);
     }
 
+    // readOnly transaction - replica 가 설정되어 있으면 replica 에서 읽는다. (ReadWriteRoutingConfig)
     @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public EmployeePage<Employee> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = pageSize(limit);
+        // 다음 페이지 존재 여부를 count 쿼리 없이 알기 위해 한 건 더 조회한다.
+        List<Employee> employees = employeeRepository.findPageAfter(afterId, PageRequest.of(0, pageSize + 1));
+        return page(employees, pageSize, Employee::getId);
+    }
+
+    // sparse fieldset - 요청한 컬럼만 select 한다. (entity, cache 를 거치지 않는다.)
+    // nextCursor 를 만들기 위해 id 는 항상 select 하고, 요청하지 않았으면 응답에서 뺀다.
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage<Map<String, Object>> getEmployeesAfter(long afterId, int limit, Set<EmployeeField> fields) {
+        int pageSize = pageSize(limit);
+        Set<EmployeeField> selected = EnumSet.copyOf(fields);
+        selected.add(EmployeeField.ID);
+        List<Map<String, Object>> rows = employeeRepository.findFieldsAfter(afterId, pageSize + 1, selected);
+        EmployeePage<Map<String, Object>> page = page(rows, pageSize, row -> (Long) row.get(EmployeeField.ID.property()));
+        if (!fields.contains(EmployeeField.ID)) {
+            page.getContent().forEach(row -> row.remove(EmployeeField.ID.property()));
+        }
+        return page;
+    }
+
+    // 목록 페이지 ETag 비교용 - getEmployeesAfter 와 같은 범위의 (id, version) 만 읽는다.
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage<EmployeeVersionView> getEmployeeVersionsAfter(long afterId, int limit) {
+        int pageSize = pageSize(limit);
+        List<EmployeeVersionView> versions = employeeRepository.findVersionsAfter(afterId, PageRequest.of(0, pageSize + 1));
+        return page(versions, pageSize, EmployeeVersionView::getId);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // pageSize + 1 건을 읽었으면 마지막 한 건은 다음 페이지가 있다는 표시로만 쓴다.
+    private static <T> EmployeePage<T> page(List<T> rows, int pageSize, ToLongFunction<T> id) {
+        if (rows.size() <= pageSize) {
+            return new EmployeePage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        return new EmployeePage<>(content, id.applyAsLong(content.get(pageSize - 1)));
+    }
+
+    // Stream 을 소비하는 동안 커넥션/커서가 열려 있어야 하므로 readOnly 트랜잭션 안에서 실행한다.
+    // 처리한 entity 는 바로 detach 해서 persistence context 가 row 수만큼 커지지 않게 한다.
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEmployees(Consumer<Employee> consumer) {
+        long count = 0;
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            for (Employee employee : (Iterable<Employee>) employees::iterator) {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // read-through cache - Optional.empty() 는 cache 하지 않는다. (#result 는 Optional 의 내부 값)
+    // read model 이 준비되어 있으면 cache 도 거치지 않는다. (condition)
+    // service 에서 transaction 을 열지 않는다. - read model 조회에 connection 을 잡지 않도록
+    // (findById 는 SimpleJpaRepository 의 readOnly transaction 에서 실행된다. -> replica routing 은 그대로)
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id", unless = "#result == null",
+            condition = "!@employeeReadModel.ready")
     public Optional<Employee> getEmployeeById(long id) {
+        if (employeeReadModel.isReady()) {
+            return employeeReadModel.findById(id);
+        }
+        if (employeeCache() != null) {
+            // cache 에 들어갈 결과는 primary 에서 읽는다. (replica 지연 중의 이전 row 를 cache 하지 않도록)
+            return PrimaryReads.call(() -> employeeRepository.findById(id));
+        }
         return employeeRepository.findById(id);
     }
 
+    // sparse fieldset - PK 조회 한 번, 요청한 컬럼만 select 한다.
+    // id cache 에는 entity 전체가 들어 있으므로 쓰지 않고 채우지도 않는다.
     @Override
-    public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+    public Optional<Map<String, Object>> getEmployeeById(long id, Set<EmployeeField> fields) {
+        return employeeRepository.findFieldsById(id, fields);
     }
 
+    // multi-get - 요청 순서(중복 제거)대로 돌려주고 없는 id 를 알려준다.
+    // read model 이 준비되어 있으면 memory 에서 찾고, 아니면 id cache 에서 먼저 찾은 뒤 나머지만 chunk 단위 IN (...) 으로 조회한다.
+    // DB 에서 읽은 row 는 getEmployeeById 와 같은 cache 에 넣는다. (read-through)
     @Override
-    public void deleteEmployee(Long id) { employeeRepository.deleteById(id); }
+    public EmployeeLookupResult getEmployeesByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        Map<Long, Employee> found = new HashMap<>();
+
+        if (employeeReadModel.isReady()) {
+            for (Long id : distinctIds) {
+                employeeReadModel.findById(id).ifPresent(employee -> found.put(id, employee));
+            }
+        } else {
+            Cache cache = employeeCache();
+            List<Long> missing = new ArrayList<>(distinctIds.size());
+            for (Long id : distinctIds) {
+                Cache.ValueWrapper cached = cache == null ? null : cache.get(id);
+                if (cached != null && cached.get() instanceof Employee) {
+                    found.put(id, (Employee) cached.get());
+                } else {
+                    missing.add(id);
+                }
+            }
+            for (int from = 0; from < missing.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                List<Long> chunk = missing.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, missing.size()));
+                // cache 에 넣을 row 는 primary 에서 읽는다. (getEmployeeById 와 같은 이유)
+                List<Employee> rows = cache == null
+                        ? employeeRepository.findAllByIdIn(chunk)
+                        : PrimaryReads.call(() -> employeeRepository.findAllByIdIn(chunk));
+                for (Employee employee : rows) {
+                    found.put(employee.getId(), employee);
+                    if (cache != null) {
+                        cache.putIfAbsent(employee.getId(), employee);
+                    }
+                }
+            }
+        }
+
+        List<Employee> employees = new ArrayList<>(found.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Employee employee = found.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                notFound.add(id);
+            }
+        }
+        return new EmployeeLookupResult(employees, notFound);
+    }
+
+    // id cache - 없거나 꺼져 있으면(spring.cache.type=none) null
+    private Cache employeeCache() {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE);
+        return cache instanceof NoOpCache ? null : cache;
+    }
+
+    // typeahead 검색 - EmployeeSearchIndex 가 순위를 매긴 id 를 getEmployeesByIds 로 읽는다. (read model / cache / IN 쿼리 한 번)
+    // index 가 꺼져 있거나 적재 중이면 Optional.empty() - LIKE '%q%' (full scan) 로 대신하지 않는다.
+    @Override
+    public Optional<List<Employee>> searchEmployees(String query, int limit) {
+        if (!employeeSearchIndex.isReady()) {
+            return Optional.empty();
+        }
+        List<Long> ids = employeeSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        return Optional.of(ids.isEmpty() ? List.of() : getEmployeesByIds(ids).getEmployees());
+    }
+
+    // sparse fieldset 검색 - index 순서대로 맞추기 위해 id 는 항상 select 하고, 요청하지 않았으면 응답에서 뺀다.
+    @Override
+    public Optional<List<Map<String, Object>>> searchEmployees(String query, int limit, Set<EmployeeField> fields) {
+        if (!employeeSearchIndex.isReady()) {
+            return Optional.empty();
+        }
+        List<Long> ids = employeeSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        if (ids.isEmpty()) {
+            return Optional.of(List.of());
+        }
+
+        Set<EmployeeField> selected = EnumSet.copyOf(fields);
+        selected.add(EmployeeField.ID);
+        Map<Object, Map<String, Object>> rows = new HashMap<>();
+        for (Map<String, Object> row : employeeRepository.findFieldsByIdIn(ids, selected)) {
+            rows.put(row.get(EmployeeField.ID.property()), row);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(rows.size());
+        for (Long id : ids) {
+            Map<String, Object> row = rows.get(id);
+            if (row != null) {
+                if (!fields.contains(EmployeeField.ID)) {
+                    row.remove(EmployeeField.ID.property());
+                }
+                results.add(row);
+            }
+        }
+        return Optional.of(results);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        if (employeeReadModel.isReady()) {
+            return employeeReadModel.findByEmail(email);
+        }
+        return employeeRepository.findByEmail(email);
+    }
+
+    @Override
+    public List<Employee> getEmployeesByName(String firstName, String lastName) {
+        if (employeeReadModel.isReady()) {
+            return employeeReadModel.findByName(firstName, lastName);
+        }
+        return employeeRepository.findAllByJPQL(firstName, lastName);
+    }
+
+    // If-None-Match 비교용 - entity 를 읽거나 cache 에 넣지 않는다.
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    // UPDATE 한 문장으로 수정한다. (조회 -> 수정 -> merge 대신)
+    // 수정된 row 가 없으면 Optional.empty() (404), version 이 맞지 않으면 ObjectOptimisticLockingFailureException (409)
+    // 응답으로 돌려주는 Employee 는 entity 를 다시 읽지 않고 요청 값으로 만든다.
+    // version 은 요청에 version 이 있으면 + 1, 없으면 같은 transaction 에서 version 만 다시 읽는다. (UPDATE 한 row 는 잠겨 있다.)
+    // -> 응답의 ETag, read model / 검색 index 가 받는 이벤트에 항상 DB 의 version 이 들어간다.
+    // UPDATE 와 outbox 기록을 한 transaction 으로 묶는다. (404/409 를 구분하는 조회도 replica 가 아닌 primary 에서 실행된다.)
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    })
+    public Optional<Employee> updateEmployee(long id, Employee employee) {
+        Instant updatedAt = Instant.now();
+        int updatedRows;
+        try {
+            updatedRows = employeeRepository.updateById(id, employee.getFirstName(), employee.getLastName(),
+                    employee.getEmail(), employee.getVersion(), updatedAt);
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateEmails.isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail(), e);
+            }
+            throw e;
+        }
+
+        if (updatedRows == 0) {
+            // 실패한 경우에만 한 번 더 조회해서 404 와 409 를 구분한다.
+            if (employee.getVersion() != null && employeeRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+            }
+            return Optional.empty();
+        }
+
+        emailBloomFilter.put(employee.getEmail());
+        Long version = employee.getVersion() != null
+                ? Long.valueOf(employee.getVersion() + 1)
+                : employeeRepository.findVersionById(id).orElse(null);
+        Employee updatedEmployee = Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(version)
+                .updatedAt(updatedAt)
+                .build();
+        eventPublisher.publishEvent(EmployeeChangeEvent.updated(updatedEmployee));
+        return Optional.of(updatedEmployee);
+    }
+
+    // DELETE 한 문장으로 삭제한다. (deleteById 의 SELECT 없이) 삭제된 row 가 없으면 false (404)
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id", beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, key = "#id")
+    })
+    @Transactional
+    public boolean deleteEmployee(long id) {
+        if (employeeRepository.deleteRowById(id) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(EmployeeChangeEvent.deleted(id));
+        return true;
+    }
+
+    // 여러 employee 를 한 트랜잭션에서 삭제한다. - row 마다 SELECT + DELETE 대신 chunk 마다 SELECT id IN (...) + DELETE IN (...)
+    // SELECT 는 실제로 지워지는 id 를 알기 위해서다. (삭제 이벤트 / not found 목록)
+    // cache 는 id 별로 지우지 않고 전체를 비운다. (대량 삭제는 야간 작업이라 드물다.)
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, allEntries = true, beforeInvocation = true),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEE_CACHE, allEntries = true)
+    })
+    @Transactional
+    public EmployeeDeleteResult deleteEmployees(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Long> deletedIds = new ArrayList<>(distinctIds.size());
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            int to = Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.size());
+            List<Long> existingIds = employeeRepository.findExistingIds(distinctIds.subList(from, to));
+            if (!existingIds.isEmpty()) {
+                deleted += employeeRepository.deleteRowsByIds(existingIds);
+                deletedIds.addAll(existingIds);
+            }
+        }
+
+        Set<Long> deletedIdSet = new HashSet<>(deletedIds);
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : distinctIds) {
+            if (!deletedIdSet.contains(id)) {
+                notFound.add(id);
+            }
+        }
+        if (!deletedIds.isEmpty()) {
+            eventPublisher.publishEvent(EmployeeChangeEvent.deleted(deletedIds));
+        }
+        return new EmployeeDeleteResult(deleted, notFound);
+    }
 }
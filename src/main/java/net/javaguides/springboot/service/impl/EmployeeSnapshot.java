@@ -0,0 +1,466 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/*
+employees 테이블 전체를 memory 에 복제하는 자료구조(EmployeeReadModel, EmployeeSearchIndex)의 적재와 변경 반영
+- 시작할 때 streaming scan 으로 적재하고, 이후의 변경은 두 경로로 반영한다.
+  1. 이 instance 의 쓰기 : EmployeeChangeEvent 를 commit 후에 바로 반영한다. (방금 쓴 값을 바로 읽을 수 있도록)
+  2. change feed (EmployeeChangeService.subscribe) : outbox 의 모든 변경(다른 instance 의 쓰기 포함)을 seq 순서로 받아서
+     그 id 를 DB 에서 다시 읽어서 반영한다. (refresh) - outbox row 의 값 대신 현재 row 를 읽으므로 requeue 로 순서가 바뀌어도 맞다.
+     1 에서 빠지거나 순서가 어긋난 변경도 이 경로로 다시 맞춰진다. relay 의 poll-interval 만큼 늦을 수 있다.
+- reactive profile 에는 change feed 가 없다. - 이 instance 의 쓰기만 반영되므로 instance 가 하나일 때만 켜야 한다. (시작할 때 경고)
+  reactive profile 의 쓰기(ReactiveEmployeeServiceImpl)는 outbox 를 기록하지 않으므로 어느 profile 의 snapshot 에도 반영되지 않는다.
+- 적재 중에 commit 된 변경은 id 만 기록했다가(dirty) 적재가 끝난 뒤 DB 에서 다시 읽어서 반영한다.
+- 변경 순서는 번호(stamp)로 맞춘다. (이벤트는 transaction 의 beforeCommit, 다시 읽기는 읽기 전에 받는다.)
+  더 늦은 번호가 이미 반영된 row 는 하위 클래스의 put 이 건너뛴다.
+  받은 번호는 반영(또는 rollback)이 끝날 때까지 pending 에 둔다. appliedStamp() 이하의 번호는 더 이상 도착하지 않으므로
+  하위 클래스는 그 이하 번호의 tombstone 을 지울 수 있다.
+- 추정 메모리가 max-size 를 넘으면 비우고 isReady() 를 false 로 돌린다. (EmployeeServiceImpl 은 DB 에서 읽는다.)
+하위 클래스는 자료구조(새로 만들기, row 하나 반영, 비우기)만 구현한다. put / clear / Loader.install 은 lock 안에서 호출된다.
+public 이어야 한다. - package-private 이면 javac 가 하위 클래스에 bridge method 를 만들고, 두 번째 context 부터 @EventListener 가 호출되지 않았다.
+*/
+public abstract class EmployeeSnapshot {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    // 로그에 쓰는 이름과 설정 prefix (예 : "Employee read model", "employee.read-model")
+    private final String name;
+
+    private final String property;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EntityManager entityManager;
+
+    // null 이면 change feed 없이 이 instance 의 이벤트만 반영한다. (reactive profile)
+    private final EmployeeChangeService changeService;
+
+    private final TransactionTemplate scanTransaction;
+
+    private final TransactionTemplate rereadTransaction;
+
+    private final boolean enabled;
+
+    private final long maxBytes;
+
+    // 자료구조를 바꾸는 lock - synchronized 대신 ReentrantLock 을 사용한다. (기다리는 virtual thread 가 carrier thread 를 잡고 있지 않도록)
+    // 하위 클래스의 put / clear / Loader.install 과 afterApply 는 이 lock 안에서 호출된다.
+    protected final ReentrantLock lock = new ReentrantLock();
+
+    // 변경을 반영하는 순서 - transaction 의 beforeCommit 에서 번호를 받는다. (아래 onChange 참고)
+    private final AtomicLong stamps = new AtomicLong();
+
+    // 받았지만 아직 반영이 끝나지 않은 번호 (이 set 의 lock 안에서 번호를 받고 추가한다.)
+    private final TreeSet<Long> pending = new TreeSet<>();
+
+    private volatile boolean ready;
+
+    // 적재 중에 commit 된 변경의 id - 적재가 끝난 뒤 DB 에서 다시 읽는다. (null 이면 적재 중이 아님)
+    private Set<Long> dirty;
+
+    // change feed 구독 해제 (구독하지 않았으면 null)
+    private volatile Runnable unsubscribe;
+
+    EmployeeSnapshot(String name, String property, EmployeeRepository employeeRepository, EntityManager entityManager,
+                     PlatformTransactionManager transactionManager, ObjectProvider<EmployeeChangeService> changeService,
+                     boolean enabled, DataSize maxSize) {
+        this.name = name;
+        this.property = property;
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.changeService = changeService == null ? null : changeService.getIfAvailable();
+        this.enabled = enabled;
+        this.maxBytes = maxSize.toBytes();
+
+        // readOnly 가 아닌 transaction - replica 가 설정되어 있어도 primary 에서 읽는다. (replica 지연만큼 빠진 변경이 생기지 않도록)
+        this.scanTransaction = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        // 다시 읽기는 scan 과 다른 transaction 에서 해야 scan 이후에 commit 된 값이 보인다. (REPEATABLE READ snapshot)
+        this.rereadTransaction = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (rereadTransaction != null) {
+            rereadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public abstract long size();
+
+    // 문자열 길이로 추정한 메모리 사용량 (max-size 와 비교하는 값)
+    public abstract long estimatedBytes();
+
+    // 적재(ApplicationReadyEvent)보다 먼저 구독한다. - 적재 중에 발행된 변경은 dirty 로 기록된다.
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        if (changeService == null) {
+            log.warn("{}: no change feed in this profile - only writes through this instance are applied. "
+                    + "Writes from other instances and reactive writes leave it stale; enable {}.enabled on a single instance only",
+                    name, property);
+            return;
+        }
+        unsubscribe = changeService.subscribe(new ChangeFeed());
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        Runnable current = unsubscribe;
+        if (current != null) {
+            current.run();
+        }
+    }
+
+    // 애플리케이션 시작 후 streaming scan 으로 적재한다. (EmailBloomFilter.rebuild 와 같은 시점)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Long count = scanTransaction.execute(status -> {
+            try (Stream<Employee> employees = employeeRepository.streamAll()) {
+                // 처리한 entity 는 바로 detach 해서 persistence context 가 row 수만큼 커지지 않게 한다.
+                return load(employees.peek(entityManager::detach), this::reread);
+            }
+        });
+        if (isReady()) {
+            log.info("{} loaded: {} rows, ~{} MB in {} ms",
+                    name, count, estimatedBytes() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /*
+    적재 순서
+    1. 적재 중 표시 - 이후 commit 되는 변경은 반영하지 않고 id 만 기록한다. (dirty)
+    2. scan 으로 새 자료구조를 만들어서 교체한다. (max-size 를 넘으면 포기하고 DB 조회를 유지한다.)
+    3. dirty id 를 DB 에서 다시 읽어서 반영한다. 그 사이에 또 변경된 id 가 있으면 반복한다.
+    4. dirty 가 비어 있으면 ready
+    */
+    public long load(Stream<Employee> employees, Function<Collection<Long>, List<Employee>> reread) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long scanStamp;
+        lock.lock();
+        try {
+            ready = false;
+            dirty = new HashSet<>();
+            scanStamp = stamps.get();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            return load(employees, reread, scanStamp);
+        } catch (RuntimeException | Error e) {
+            // 적재에 실패하면 DB 조회를 유지한다.
+            lock.lock();
+            try {
+                dirty = null;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private long load(Stream<Employee> employees, Function<Collection<Long>, List<Employee>> reread, long scanStamp) {
+        Loader loader = newLoader(scanStamp);
+        long loadedRows = 0;
+        for (Employee employee : (Iterable<Employee>) employees::iterator) {
+            loader.add(employee);
+            loadedRows++;
+            if (loader.bytes() > maxBytes) {
+                lock.lock();
+                try {
+                    dirty = null;
+                    clear();
+                } finally {
+                    lock.unlock();
+                }
+                log.warn("{} disabled: more than {} rows exceed {}.max-size={} bytes", name, loadedRows, property, maxBytes);
+                return loadedRows;
+            }
+        }
+
+        lock.lock();
+        try {
+            loader.install();
+        } finally {
+            lock.unlock();
+        }
+
+        while (true) {
+            Set<Long> changed;
+            long rereadStamp;
+            lock.lock();
+            try {
+                if (dirty.isEmpty()) {
+                    dirty = null;
+                    ready = true;
+                    return loadedRows;
+                }
+                changed = dirty;
+                dirty = new HashSet<>();
+                rereadStamp = issueStamp();
+            } finally {
+                lock.unlock();
+            }
+
+            // 다시 읽기 전에 번호를 받은 변경은 읽은 값에 이미 들어 있다. -> 나중에 도착해도 무시된다.
+            try {
+                Map<Long, Employee> current = new HashMap<>();
+                for (Employee employee : reread.apply(changed)) {
+                    current.put(employee.getId(), employee);
+                }
+                lock.lock();
+                try {
+                    for (Long id : changed) {
+                        put(id, current.get(id), rereadStamp);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                completeStamp(rereadStamp);
+            }
+        }
+    }
+
+    /*
+    쓰기 transaction 안에서 발행된 이벤트를 commit 후에 반영한다. (rollback 되면 반영하지 않는다.)
+    같은 row 를 수정하는 transaction 은 row lock 때문에 차례로 commit 되지만, afterCommit 이 실행되는 순서는 보장되지 않는다.
+    -> row lock 을 잡고 있는 beforeCommit 에서 번호를 받고, 더 늦은 번호가 이미 반영된 row 는 건너뛴다.
+    */
+    @EventListener
+    public void onChange(EmployeeChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            long stamp = issueStamp();
+            try {
+                apply(event, stamp);
+            } finally {
+                completeStamp(stamp);
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            // 0 이면 beforeCommit 전에 rollback 되었다.
+            private long stamp;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                stamp = issueStamp();
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(event, stamp);
+            }
+
+            // commit / rollback 모두 - beforeCommit 뒤에 commit 이 실패해도 번호를 돌려준다.
+            @Override
+            public void afterCompletion(int status) {
+                if (stamp != 0) {
+                    completeStamp(stamp);
+                }
+            }
+        });
+    }
+
+    private void apply(EmployeeChangeEvent event, long stamp) {
+        lock.lock();
+        try {
+            if (dirty != null) {
+                event.getEmployees().forEach(employee -> dirty.add(employee.getId()));
+                return;
+            }
+            if (!ready) {
+                return;
+            }
+
+            boolean deleted = event.getType() == EmployeeChange.Type.DELETED;
+            for (Employee employee : event.getEmployees()) {
+                put(employee.getId(), deleted ? null : employee, stamp);
+            }
+            afterApply();
+            checkMaxSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+    change feed 로 받은 id 를 DB 에서 다시 읽어서 반영한다. (없는 id 는 삭제)
+    다시 읽기 전에 번호를 받으므로 그 뒤에 commit 된 이 instance 의 변경(더 늦은 번호)을 덮어쓰지 않는다.
+    번호를 받은 뒤 commit 전인 변경이 읽은 값에 빠질 수 있지만, 그 변경도 outbox 에 기록되므로 feed 로 다시 온다.
+    */
+    public void refresh(Collection<Long> ids, Function<Collection<Long>, List<Employee>> reread) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+
+        long stamp;
+        lock.lock();
+        try {
+            if (dirty != null) {
+                dirty.addAll(ids);
+                return;
+            }
+            if (!ready) {
+                return;
+            }
+            stamp = issueStamp();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Map<Long, Employee> current = new HashMap<>();
+            for (Employee employee : reread.apply(ids)) {
+                current.put(employee.getId(), employee);
+            }
+            lock.lock();
+            try {
+                if (dirty != null) {
+                    // 읽는 사이에 다시 적재가 시작되었다.
+                    dirty.addAll(ids);
+                    return;
+                }
+                if (!ready) {
+                    return;
+                }
+                for (Long id : ids) {
+                    put(id, current.get(id), stamp);
+                }
+                afterApply();
+                checkMaxSize();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            completeStamp(stamp);
+        }
+    }
+
+    private long issueStamp() {
+        synchronized (pending) {
+            long stamp = stamps.incrementAndGet();
+            pending.add(stamp);
+            return stamp;
+        }
+    }
+
+    private void completeStamp(long stamp) {
+        synchronized (pending) {
+            pending.remove(stamp);
+        }
+    }
+
+    // 이 번호 이하는 모두 반영(또는 rollback)이 끝났다. - 이후의 put 은 모두 이보다 큰 번호로 온다.
+    protected long appliedStamp() {
+        synchronized (pending) {
+            return pending.isEmpty() ? stamps.get() : pending.first() - 1;
+        }
+    }
+
+    private void checkMaxSize() {
+        if (estimatedBytes() > maxBytes) {
+            ready = false;
+            log.warn("{} disabled: {} rows exceed {}.max-size={} bytes", name, size(), property, maxBytes);
+            clear();
+        }
+    }
+
+    private List<Employee> reread(Collection<Long> ids) {
+        return rereadTransaction.execute(s -> employeeRepository.findAllById(ids));
+    }
+
+    // scan 한 row 로 새 자료구조를 만든다. (scanStamp 는 scan 으로 읽은 row 의 번호)
+    protected abstract Loader newLoader(long scanStamp);
+
+    // employee 가 null 이면 삭제 - 삭제한 row 도 번호를 남겨서(tombstone) 늦게 도착한 이전 변경이 되살리지 못하게 한다.
+    // 번호가 appliedStamp() 이하인 tombstone 은 더 막을 변경이 없으므로 지워도 된다. (남아 있는 동안은 estimatedBytes 에 포함한다.)
+    // employee 는 이벤트나 다시 읽은 entity 이므로 보관하려면 복사한다.
+    protected abstract void put(long id, Employee employee, long stamp);
+
+    // 이벤트 하나를 반영한 뒤 (max-size 검사 전)
+    protected void afterApply() {
+    }
+
+    // 빈 자료구조로 교체한다. (max-size 를 넘었을 때)
+    protected abstract void clear();
+
+    // change feed 구독 - relay 의 delivery thread 에서 batch 순서대로 호출된다.
+    private final class ChangeFeed implements EmployeeChangeService.Listener {
+
+        @Override
+        public void onChanges(long previousSeq, List<EmployeeChange> changes) {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (EmployeeChange change : changes) {
+                ids.add(change.getEmployeeId());
+            }
+            refresh(ids, EmployeeSnapshot.this::reread);
+        }
+
+        // 다시 읽기가 relay 를 따라가지 못해서 구독이 해제되었다. - 빠진 변경을 알 수 없으므로 다시 구독하고 전체를 다시 적재한다.
+        @Override
+        public void onDropped() {
+            log.warn("{} fell behind the change feed - reloading", name);
+            unsubscribe = changeService.subscribe(this);
+            reload();
+        }
+    }
+
+    protected interface Loader {
+
+        void add(Employee employee);
+
+        // 지금까지 추가한 row 의 추정 메모리
+        long bytes();
+
+        // 만든 자료구조로 교체한다.
+        void install();
+    }
+}
@@ -0,0 +1,16 @@
+package net.javaguides.springboot.service.impl;
+
+// in-memory 자료구조(EmployeeReadModel, EmployeeSearchIndex, EmailBloomFilter)가 같이 쓰는 hash 함수
+final class Hashes {
+
+    private Hashes() {
+    }
+
+    // splitmix64 finalizer - 연속된 id 나 String.hashCode 처럼 하위 bit 가 고르지 않은 값을 64 bit 전체에 퍼뜨린다.
+    static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
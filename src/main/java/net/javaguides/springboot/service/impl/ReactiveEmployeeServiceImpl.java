@@ -0,0 +1,165 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+EmployeeServiceImpl 과 같은 동작을 R2DBC 로 구현한다. (reactive profile)
+- DB 호출이 event loop 스레드를 막지 않으므로 호출하는 쪽에서 boundedElastic 등으로 스레드를 옮길 필요가 없다.
+- getEmployeeById 의 Caffeine cache 는 적용하지 않는다. (@Cacheable 은 Mono 의 결과가 아니라 Mono 자체를 cache 한다.)
+- 쓰기는 outbox(employee_changes) 를 기록하지 않는다. R2DBC 에는 JPA transaction 과 EmployeeChangeEvent 가 없고,
+  change feed (EmployeeChangeServiceImpl) 도 reactive profile 에서는 뜨지 않는다.
+  같은 DB 를 servlet instance 와 함께 쓰면 그 instance 의 change feed 구독자는 이 경로의 변경을 받지 못한다.
+*/
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    private final EmailBloomFilter emailBloomFilter;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository, EmailBloomFilter emailBloomFilter) {
+        this.employeeRepository = employeeRepository;
+        this.emailBloomFilter = emailBloomFilter;
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        // Bloom filter 가 "확실히 없는 email" 이라고 하면 중복 검사 SELECT 를 생략한다.
+        Mono<Boolean> exists = emailBloomFilter.mightContain(employee.getEmail())
+                ? employeeRepository.findByEmail(employee.getEmail()).hasElement()
+                : Mono.just(false);
+
+        return exists.flatMap(found -> found
+                        ? Mono.error(new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail()))
+                        : employeeRepository.insert(employee))
+                // 동시에 같은 email 로 저장하는 경우는 unique index 위반으로 드러난다. (다른 위반은 그대로 전달한다.)
+                .onErrorMap(DuplicateEmails::isDuplicateEmail,
+                        e -> new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail(), e))
+                .doOnNext(savedEmployee -> emailBloomFilter.put(savedEmployee.getEmail()));
+    }
+
+    // 요청 배열 안의 검증(필수 값, 요청 내 중복)은 EmployeeServiceImpl 과 같고,
+    // 저장은 row 마다 saveEmployee 를 순서대로 실행한다. (R2DBC 는 JDBC batch 가 없다)
+    @Override
+    public Mono<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        List<EmployeeBatchResult.Failure> failed = new ArrayList<>();
+        List<Integer> candidateIndexes = new ArrayList<>(employees.size());
+
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee.getEmail() == null || employee.getFirstName() == null || employee.getLastName() == null) {
+                failed.add(new EmployeeBatchResult.Failure(i, employee.getEmail(), "firstName, lastName and email are required"));
+            } else if (!emails.add(employee.getEmail())) {
+                failed.add(new EmployeeBatchResult.Failure(i, employee.getEmail(), "Duplicate email in request:" + employee.getEmail()));
+            } else {
+                candidateIndexes.add(i);
+            }
+        }
+
+        return Flux.fromIterable(candidateIndexes)
+                .concatMap(index -> saveEmployee(employees.get(index))
+                        .onErrorResume(ResourceNotFoundException.class, e -> {
+                            failed.add(new EmployeeBatchResult.Failure(index, employees.get(index).getEmail(), e.getMessage()));
+                            return Mono.empty();
+                        }))
+                .collectList()
+                .map(created -> {
+                    failed.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+                    return new EmployeeBatchResult(created, failed);
+                });
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        return employeeRepository.findAll();
+    }
+
+    @Override
+    public Mono<EmployeePage<Employee>> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, EmployeeServiceImpl.MAX_PAGE_SIZE));
+
+        // 다음 페이지 존재 여부를 count 쿼리 없이 알기 위해 한 건 더 조회한다.
+        return employeeRepository.findPageAfter(afterId, pageSize + 1)
+                .collectList()
+                .map(employees -> {
+                    if (employees.size() <= pageSize) {
+                        return new EmployeePage<>(employees, null);
+                    }
+                    List<Employee> content = employees.subList(0, pageSize);
+                    return new EmployeePage<>(content, content.get(pageSize - 1).getId());
+                });
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    // 수정된 row 가 없으면 Mono.empty() (404), version 이 맞지 않으면 ObjectOptimisticLockingFailureException (409)
+    // version 은 요청에 version 이 있으면 + 1, 없으면 version 만 다시 읽는다. (EmployeeServiceImpl 과 같다)
+    // R2DBC transaction 이 없으므로 다시 읽는 사이에 다른 수정이 commit 되면 그 수정의 version 이 나온다. (이전 version 은 나오지 않는다.)
+    @Override
+    public Mono<Employee> updateEmployee(long id, Employee employee) {
+        Instant updatedAt = Instant.now();
+        return employeeRepository.updateById(id, employee.getFirstName(), employee.getLastName(),
+                        employee.getEmail(), employee.getVersion(), updatedAt)
+                .onErrorMap(DuplicateEmails::isDuplicateEmail,
+                        e -> new ResourceNotFoundException("Employee already exist with given email:" + employee.getEmail(), e))
+                .flatMap(updatedRows -> {
+                    if (updatedRows == 0) {
+                        // 실패한 경우에만 한 번 더 조회해서 404 와 409 를 구분한다.
+                        if (employee.getVersion() == null) {
+                            return Mono.empty();
+                        }
+                        return employeeRepository.existsById(id)
+                                .flatMap(exists -> exists
+                                        ? Mono.error(new ObjectOptimisticLockingFailureException(Employee.class, id))
+                                        : Mono.empty());
+                    }
+
+                    emailBloomFilter.put(employee.getEmail());
+                    if (employee.getVersion() != null) {
+                        return Mono.just(updated(id, employee, employee.getVersion() + 1, updatedAt));
+                    }
+                    return employeeRepository.findVersionById(id)
+                            .map(version -> updated(id, employee, version, updatedAt))
+                            .switchIfEmpty(Mono.fromSupplier(() -> updated(id, employee, null, updatedAt)));
+                });
+    }
+
+    // 응답으로 돌려주는 Employee 는 entity 를 다시 읽지 않고 요청 값으로 만든다.
+    private static Employee updated(long id, Employee employee, Long version, Instant updatedAt) {
+        return Employee.builder()
+                .id(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(version)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    // 삭제된 row 가 없으면 false (404)
+    @Override
+    public Mono<Boolean> deleteEmployee(long id) {
+        return employeeRepository.deleteById(id).map(deletedRows -> deletedRows > 0);
+    }
+}
@@ -0,0 +1,52 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+JMH benchmark 에서 사용하는 application context.
+test profile(application-test.properties)의 H2 in-memory DB(MySQL mode)를 사용하고, web server 없이 service/repository bean 만 사용한다.
+(test profile 은 SQL logging 도 끈다. - 측정값을 왜곡하므로)
+*/
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        // application.properties 보다 우선하도록 command line argument 로 넘긴다.
+        List<String> args = new ArrayList<>(List.of("--logging.level.root=warn"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    // JDBC batch insert 로 테스트 데이터를 채운다.
+    static List<Employee> seed(EmployeeRepository employeeRepository, int count) {
+        return employeeRepository.batchInsert(employees(0, count));
+    }
+
+    static List<Employee> employees(int from, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + (i % 1000))
+                    .email("employee" + i + "@bench.com")
+                    .build());
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,54 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// getAllEmployees(findAll) 를 table 크기별로 측정 - 비교용으로 같은 table 의 keyset page(100 건) 도 측정한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeListBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long middleId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        employeeService = context.getBean(EmployeeService.class);
+
+        List<Employee> employees = BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), tableSize);
+        middleId = employees.get(tableSize / 2).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public EmployeePage<Employee> getEmployeesAfter() {
+        return employeeService.getEmployeesAfter(middleId, 100);
+    }
+}
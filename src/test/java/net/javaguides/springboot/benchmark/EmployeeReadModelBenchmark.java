@@ -0,0 +1,74 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeReadModel;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// EmployeeReadModel - 시작 시 적재(streaming scan + index 구성) 시간과 적재 후 조회 시간
+// 같은 조회의 cache / DB 버전은 EmployeeServiceBenchmark 참고
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeReadModelBenchmark {
+
+    @Param({"10000", "100000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeReadModel employeeReadModel;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start("employee.read-model.enabled=true");
+        employeeService = context.getBean(EmployeeService.class);
+        employeeReadModel = context.getBean(EmployeeReadModel.class);
+
+        // repository 로 직접 저장한 row 는 다시 적재해야 read model 에 들어간다.
+        List<Employee> employees = BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), tableSize);
+        ids = employees.stream().mapToLong(Employee::getId).toArray();
+        employeeReadModel.reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public long reload() {
+        employeeReadModel.reload();
+        return employeeReadModel.size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<Employee> getEmployeeByEmail() {
+        return employeeService.getEmployeeByEmail("employee" + ThreadLocalRandom.current().nextInt(tableSize) + "@bench.com");
+    }
+}
@@ -0,0 +1,71 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import net.javaguides.springboot.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+List<Employee> Jackson 직렬화/역직렬화 - Spring Boot 와 같은 설정의 ObjectMapper 사용
+- format : json (application/json), smile (application/x-jackson-smile, SmileConfig 와 같은 ObjectMapper)
+- payload 크기 (raw / gzip) 는 setup 에서 출력한다.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+
+    private List<Employee> employees;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        objectMapper = "smile".equals(format)
+                ? Jackson2ObjectMapperBuilder.json().createXmlMapper(false).factory(new SmileFactory()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        employees = BenchmarkApplication.employees(0, size);
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).setId(i + 1);
+        }
+        payload = objectMapper.writeValueAsBytes(employees);
+        System.out.printf("%n%s, %d employees : %d bytes, gzip %d bytes%n", format, size, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Employee[] deserialize() throws IOException {
+        return objectMapper.readValue(payload, Employee[].class);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
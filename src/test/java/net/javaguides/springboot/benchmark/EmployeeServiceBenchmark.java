@@ -0,0 +1,68 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// saveEmployee(중복 검사 + insert), getEmployeeById 처리량
+// cache=false 이면 spring.cache.type=none 으로 매번 DB 를 조회한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    private static final int TABLE_SIZE = 10_000;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long[] ids;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = cache
+                ? BenchmarkApplication.start()
+                : BenchmarkApplication.start("spring.cache.type=none");
+        employeeService = context.getBean(EmployeeService.class);
+
+        List<Employee> employees = BenchmarkApplication.seed(context.getBean(EmployeeRepository.class), TABLE_SIZE);
+        ids = employees.stream().mapToLong(Employee::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        long next = sequence.incrementAndGet();
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("New")
+                .lastName("Employee")
+                .email("new" + next + "@bench.com")
+                .build());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
@@ -0,0 +1,162 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeField;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class EmployeeMetricsAspectTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeService employeeService;
+
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeService employeeServiceTarget;
+
+    private EmployeeRepository employeeRepositoryTarget;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        EmployeeMetricsAspect aspect = new EmployeeMetricsAspect(meterRegistry);
+
+        employeeServiceTarget = mock(EmployeeService.class);
+        employeeService = proxy(employeeServiceTarget, aspect);
+
+        employeeRepositoryTarget = mock(EmployeeRepository.class);
+        employeeRepository = proxy(employeeRepositoryTarget, aspect);
+    }
+
+    @DisplayName("service call records latency and result size")
+    @Test
+    public void givenEmployees_whenGetAllEmployees_thenRecordTimerAndResultSize() {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Hazel").lastName("Tree").email("hazel@coffee.com").build();
+        given(employeeServiceTarget.getAllEmployees()).willReturn(List.of(employee, employee));
+
+        // when - action or the behaviour that we are going test
+        employeeService.getAllEmployees();
+        employeeService.getAllEmployees();
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.service").tags("method", "getAllEmployees", "exception", "none")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("employee.service.result.size").tag("method", "getAllEmployees")
+                .summary().totalAmount()).isEqualTo(4);
+    }
+
+    @DisplayName("service error records error counter with exception tag")
+    @Test
+    public void givenDuplicateEmail_whenSaveEmployee_thenRecordErrorCounter() {
+        // given - precondition or setup
+        given(employeeServiceTarget.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceNotFoundException("Employee already exist with given email:hazel@coffee.com"));
+
+        // when - action or the behaviour that we are going test
+        assertThatThrownBy(() -> employeeService.saveEmployee(new Employee()))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.service.errors")
+                .tags("method", "saveEmployee", "exception", "ResourceNotFoundException").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.service")
+                .tags("method", "saveEmployee", "exception", "ResourceNotFoundException").timer().count()).isEqualTo(1);
+    }
+
+    @DisplayName("repository query records latency and result size")
+    @Test
+    public void givenMissingEmail_whenFindByEmail_thenRecordEmptyResult() {
+        // given - precondition or setup
+        given(employeeRepositoryTarget.findByEmail("hazel@coffee.com")).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going test
+        employeeRepository.findByEmail("hazel@coffee.com");
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.repository").tag("method", "findByEmail").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.repository.result.size").tag("method", "findByEmail")
+                .summary().totalAmount()).isZero();
+    }
+
+    @DisplayName("result size unwraps Optional<List> and counts the rows of lookup results")
+    @Test
+    public void givenWrappedResults_whenSearchAndLookup_thenRecordRowCount() {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Hazel").lastName("Tree").email("hazel@coffee.com").build();
+        given(employeeServiceTarget.searchEmployees("hazel", 10)).willReturn(Optional.of(List.of(employee, employee, employee)));
+        given(employeeServiceTarget.getEmployeesByIds(List.of(1L, 2L)))
+                .willReturn(new EmployeeLookupResult(List.of(employee), List.of(2L)));
+
+        // when - action or the behaviour that we are going test
+        employeeService.searchEmployees("hazel", 10);
+        employeeService.getEmployeesByIds(List.of(1L, 2L));
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.service.result.size").tag("method", "searchEmployees")
+                .summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("employee.service.result.size").tag("method", "getEmployeesByIds")
+                .summary().totalAmount()).isEqualTo(1);
+    }
+
+    @DisplayName("overloaded methods are recorded separately by signature")
+    @Test
+    public void givenOverloads_whenGetEmployeeById_thenRecordSeparateTimers() {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Hazel").lastName("Tree").email("hazel@coffee.com").build();
+        given(employeeServiceTarget.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        given(employeeServiceTarget.getEmployeeById(1L, Set.of(EmployeeField.EMAIL))).willReturn(Optional.of(Map.of("email", "hazel@coffee.com")));
+
+        // when - action or the behaviour that we are going test
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(1L, Set.of(EmployeeField.EMAIL));
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.service").tags("method", "getEmployeeById", "signature", "(long)")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("employee.service").tags("method", "getEmployeeById", "signature", "(long,Set)")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @DisplayName("result size is not recorded for return types without a row count")
+    @Test
+    public void givenStreamResult_whenStreamAll_thenNoResultSizeSummary() {
+        // given - precondition or setup
+        given(employeeRepositoryTarget.streamAll()).willReturn(Stream.empty());
+
+        // when - action or the behaviour that we are going test
+        employeeRepository.streamAll();
+
+        // then - verify the output
+        assertThat(meterRegistry.get("employee.repository").tag("method", "streamAll").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("employee.repository.result.size").tag("method", "streamAll").summary()).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, EmployeeMetricsAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+}
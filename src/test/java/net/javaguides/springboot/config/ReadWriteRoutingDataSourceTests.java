@@ -0,0 +1,78 @@
+package net.javaguides.springboot.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class ReadWriteRoutingDataSourceTests {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+            dataSource(primaryConnection), dataSource(replicaConnection));
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.clear();
+    }
+
+    @DisplayName("statement outside a transaction goes to the primary")
+    @Test
+    public void givenNoTransaction_whenGetConnection_thenPrimary() throws Exception {
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        Connection connection = dataSource.getConnection();
+
+        // then - verify the output
+        assertThat(connection).isSameAs(primaryConnection);
+    }
+
+    @DisplayName("readOnly transaction goes to the replica")
+    @Test
+    public void givenReadOnlyTransaction_whenGetConnection_thenReplica() throws Exception {
+        // given - precondition or setup
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when - action or the behaviour that we are going test
+        Connection connection = dataSource.getConnection();
+
+        // then - verify the output
+        assertThat(connection).isSameAs(replicaConnection);
+    }
+
+    @DisplayName("read-your-writes keeps readOnly transaction on the primary")
+    @Test
+    public void givenReadYourWrites_whenReadOnlyTransaction_thenPrimary() throws Exception {
+        // given - precondition or setup
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.usePrimary();
+
+        // when - action or the behaviour that we are going test
+        Connection connection = dataSource.getConnection();
+
+        // then - verify the output
+        assertThat(connection).isSameAs(primaryConnection);
+    }
+
+    private static DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            given(dataSource.getConnection()).willReturn(connection);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,85 @@
+package net.javaguides.springboot.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryLogListenerTests {
+
+    private final SlowQueryLogListener listener = new SlowQueryLogListener(200);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryLogListener.LOGGER_NAME);
+
+    @BeforeEach
+    public void setup() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @DisplayName("statement faster than threshold is not logged")
+    @Test
+    public void givenFastQuery_whenAfterQuery_thenNothingLogged() {
+        // given - precondition or setup
+        ExecutionInfo executionInfo = executionInfo(199);
+
+        // when - action or the behaviour that we are going test
+        listener.afterQuery(executionInfo, List.of(queryInfo("select * from employees where id = ?", 1)));
+
+        // then - verify the output
+        assertThat(appender.list).isEmpty();
+    }
+
+    @DisplayName("slow statement is logged with timing and bind count, without bind values")
+    @Test
+    public void givenSlowBatch_whenAfterQuery_thenLogTimingAndBindCount() {
+        // given - precondition or setup
+        ExecutionInfo executionInfo = executionInfo(250);
+        executionInfo.setBatchSize(2);
+        QueryInfo queryInfo = queryInfo("insert into employees (first_name, last_name, email, version) values (?, ?, ?, 0)", 3);
+        queryInfo.getParametersList().add(Collections.nCopies(3, new ParameterSetOperation(null, new Object[]{1, "secret@gmail.com"})));
+
+        // when - action or the behaviour that we are going test
+        listener.afterQuery(executionInfo, List.of(queryInfo));
+
+        // then - verify the output
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .contains("250 ms", "batchSize=2", "binds=6", "insert into employees")
+                .doesNotContain("secret@gmail.com");
+    }
+
+    private static ExecutionInfo executionInfo(long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        executionInfo.setSuccess(true);
+        return executionInfo;
+    }
+
+    private static QueryInfo queryInfo(String query, int binds) {
+        QueryInfo queryInfo = new QueryInfo(query);
+        queryInfo.getParametersList().add(new ArrayList<>(
+                Collections.nCopies(binds, new ParameterSetOperation(null, new Object[]{1, "secret@gmail.com"}))));
+        return queryInfo;
+    }
+}
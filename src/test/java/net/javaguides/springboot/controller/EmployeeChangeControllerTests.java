@@ -0,0 +1,109 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeChangeController.class)
+public class EmployeeChangeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeChangeService employeeChangeService;
+
+    // Junit test for long-poll with backlog
+    @Test
+    public void givenChangesAfterSince_whenLongPoll_thenReturnBacklogImmediately() throws Exception {
+        // given - precondition or setup
+        given(employeeChangeService.getChanges(5L, EmployeeChangeController.MAX_BATCH))
+                .willReturn(List.of(change(6, EmployeeChange.Type.CREATED), change(7, EmployeeChange.Type.UPDATED)));
+
+        // when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(get("/api/employees/changes").param("since", "5").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].seq", is(6)))
+                .andExpect(jsonPath("$[1].type", is("UPDATED")));
+    }
+
+    // Junit test for long-poll waiting for the relay
+    @Test
+    public void givenNoBacklog_whenRelayPublishes_thenLongPollReturnsPublishedChanges() throws Exception {
+        // given - precondition or setup
+        given(employeeChangeService.getChanges(7L, EmployeeChangeController.MAX_BATCH)).willReturn(List.of());
+        MvcResult result = mockMvc.perform(get("/api/employees/changes").param("since", "7").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ArgumentCaptor<EmployeeChangeService.Listener> listener = ArgumentCaptor.forClass(EmployeeChangeService.Listener.class);
+        verify(employeeChangeService).subscribe(listener.capture());
+
+        // when - action or the behaviour that we are going test
+        listener.getValue().onChanges(7L, List.of(change(8, EmployeeChange.Type.DELETED)));
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].seq", is(8)))
+                .andExpect(jsonPath("$[0].type", is("DELETED")));
+    }
+
+    // Junit test for long-poll when the relay published past the client's cursor
+    @Test
+    public void givenPublishedPastSince_whenRelayPublishes_thenLongPollReadsMissedChanges() throws Exception {
+        // given - precondition or setup
+        given(employeeChangeService.getChanges(7L, EmployeeChangeController.MAX_BATCH))
+                .willReturn(List.of())
+                .willReturn(List.of(change(8, EmployeeChange.Type.CREATED), change(9, EmployeeChange.Type.CREATED)));
+        MvcResult result = mockMvc.perform(get("/api/employees/changes").param("since", "7").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ArgumentCaptor<EmployeeChangeService.Listener> listener = ArgumentCaptor.forClass(EmployeeChangeService.Listener.class);
+        verify(employeeChangeService).subscribe(listener.capture());
+
+        // when - action or the behaviour that we are going test
+        // seq 8 은 구독 전에 발행되었다. - 이 batch 만 보내면 8 을 놓친다.
+        listener.getValue().onChanges(8L, List.of(change(9, EmployeeChange.Type.CREATED)));
+
+        // then - verify the output
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].seq", is(8)));
+    }
+
+    private static EmployeeChange change(long seq, EmployeeChange.Type type) {
+        return EmployeeChange.builder()
+                .seq(seq)
+                .employeeId(1L)
+                .type(type)
+                .email("banana@gmail.com")
+                .changedAt(Instant.now())
+                .build();
+    }
+}
@@ -1,32 +1,61 @@
 package net.javaguides.springboot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import net.javaguides.springboot.config.SmileConfig;
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeeDeleteResult;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.dto.EmployeePage;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeField;
+import net.javaguides.springboot.repository.EmployeeVersionView;
 import net.javaguides.springboot.service.EmployeeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // @WebMvcTest annotation will load only the spring beans that are required to test the controller.
 // It won't load the service layer components or the repository component.
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
+@Import({IdempotencyKeyStore.class, SmileConfig.class}) // @WebMvcTest 는 @Component, @Configuration 을 올리지 않는다.
 public class EmployeeControllerTests {
     @Autowired
     private MockMvc mockMvc; // MockMvc to call REST API.
@@ -69,24 +98,189 @@ public class EmployeeControllerTests {
 
     }
 
-    // Junit test for Get All employees REST API
+    // Junit test for create employee REST API retried with the same Idempotency-Key
     @Test
-    public void givenListOfEmployeeObject_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
+    public void givenIdempotencyKey_whenCreateEmployeeTwice_thenReplayFirstResponse() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Banana")
+                .lastName("Kim")
+                .email("banana@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> {
+                    Employee saved = invocation.getArgument(0);
+                    saved.setId(1L);
+                    return saved;
+                });
+        mockMvc.perform(post("/api/employees")
+                        .header("Idempotency-Key", "create-banana")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Idempotency-Key", "create-banana")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    // Junit test for batch create employees REST API
+    @Test
+    public void givenEmployeeList_whenCreateEmployees_thenReturnCreatedAndFailedRows() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build();
+        Employee duplicate = Employee.builder().firstName("Apple").lastName("Kim").email("banana@gmail.com").build();
+        given(employeeService.saveEmployees(any()))
+                .willReturn(new EmployeeBatchResult(List.of(employee),
+                        List.of(new EmployeeBatchResult.Failure(1, duplicate.getEmail(), "Duplicate email in request:banana@gmail.com"))));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, duplicate))));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created.size()", is(1)))
+                .andExpect(jsonPath("$.failed[0].index", is(1)))
+                .andExpect(jsonPath("$.failed[0].email", is(duplicate.getEmail())));
+    }
+
+    // Junit test for Get All employees REST API - limit 이 없으면 기본 크기의 첫 페이지
+    @Test
+    public void givenListOfEmployeeObject_whenGetAllEmployees_thenReturnFirstPageWithDefaultLimit() throws Exception {
         // given - precondition or setup
         List<Employee> listOfEmployees = new ArrayList<>();
-        listOfEmployees.add(Employee.builder().firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build());
-        listOfEmployees.add(Employee.builder().firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(1L).firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(2L).firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build());
         // willReturn : 고정 값 반환
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(new EmployeePage<>(listOfEmployees, null));
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(get("/api/employees"));
+        ResultActions afterWithoutLimit = mockMvc.perform(get("/api/employees").param("after", "0"));
 
         // then - verify the output
         // andExpect() : 응답 검증
         response.andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())));
+                .andExpect(jsonPath("$.content.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        afterWithoutLimit.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(listOfEmployees.size())));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    // Junit test for keyset pagination REST API
+    @Test
+    public void givenAfterAndLimit_whenGetEmployeesPage_thenReturnPageWithNextCursor() throws Exception {
+        // given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder().id(11L).firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build());
+        listOfEmployees.add(Employee.builder().id(12L).firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build());
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(new EmployeePage<>(listOfEmployees, 12L));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+    }
+
+    // Junit test for NDJSON export REST API
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamOneJsonObjectPerLine() throws Exception {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(1L).firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build();
+        Employee employee2 = Employee.builder().id(2L).firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build();
+        given(employeeService.exportEmployees(any())).willAnswer((invocation) -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee1);
+            consumer.accept(employee2);
+            return 2L;
+        });
+
+        // when - action or the behaviour that we are going test
+        // StreamingResponseBody 는 async 로 처리되므로 asyncDispatch 로 결과를 받는다.
+        MvcResult mvcResult = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(mvcResult));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(objectMapper.writeValueAsString(employee1) + "\n"
+                        + objectMapper.writeValueAsString(employee2) + "\n"));
+    }
+
+    // Junit test for multi-get employees REST API
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenReturnEmployeesInRequestOrderAndNotFoundIds() throws Exception {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(1L).firstName("Banana").lastName("Kim").email("banana@gmail.com").build();
+        Employee employee2 = Employee.builder().id(2L).firstName("Hazel").lastName("Tree").email("HazelTree@coffee.com").build();
+        given(employeeService.getEmployeesByIds(List.of(2L, 3L, 1L)))
+                .willReturn(new EmployeeLookupResult(List.of(employee2, employee1), List.of(3L)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "2,3,1"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", is(2)))
+                .andExpect(jsonPath("$.employees[0].id", is(2)))
+                .andExpect(jsonPath("$.employees[1].id", is(1)))
+                .andExpect(jsonPath("$.notFound[0]", is(3)));
+    }
+
+    // Junit test for typeahead search REST API
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnRankedEmployees() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("Hazel").lastName("Tree").email("HazelTree@coffee.com").build();
+        given(employeeService.searchEmployees("haz", 5)).willReturn(Optional.of(List.of(employee)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "haz").param("limit", "5"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    }
+
+    // Junit test for typeahead search REST API while the search index is not ready
+    @Test
+    public void givenSearchIndexNotReady_whenSearchEmployees_thenReturn503() throws Exception {
+        // given - precondition or setup
+        given(employeeService.searchEmployees("haz", 10)).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "haz"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isServiceUnavailable());
     }
 
     // positive scenario - valid employee id
@@ -117,6 +311,81 @@ public class EmployeeControllerTests {
 
     }
 
+    // Junit test for sparse fieldset (?fields=) on list, get and search REST API
+    @Test
+    public void givenFields_whenGetEmployees_thenReturnOnlyRequestedFields() throws Exception {
+        // given - precondition or setup
+        EnumSet<EmployeeField> fields = EnumSet.of(EmployeeField.ID, EmployeeField.EMAIL);
+        Map<String, Object> row = Map.of("id", 1L, "email", "banana@gmail.com");
+        given(employeeService.getEmployeesAfter(0L, 100, fields)).willReturn(new EmployeePage<>(List.of(row), null));
+        given(employeeService.getEmployeeById(1L, fields)).willReturn(Optional.of(row));
+        given(employeeService.getEmployeeById(2L, fields)).willReturn(Optional.empty());
+        given(employeeService.searchEmployees("ban", 10, fields)).willReturn(Optional.of(List.of(row)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions list = mockMvc.perform(get("/api/employees").param("fields", "email,id"));
+        ResultActions one = mockMvc.perform(get("/api/employees/{id}", 1L).param("fields", "id,email"));
+        ResultActions missing = mockMvc.perform(get("/api/employees/{id}", 2L).param("fields", "id,email"));
+        ResultActions search = mockMvc.perform(get("/api/employees/search").param("q", "ban").param("fields", "id,email"));
+
+        // then - verify the output
+        list.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.content[0].size()", is(2)))
+                .andExpect(jsonPath("$.content[0].email", is("banana@gmail.com")));
+        one.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$.id", is(1)));
+        missing.andExpect(status().isNotFound());
+        search.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", is("banana@gmail.com")));
+        verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+        verify(employeeService, never()).getEmployeeById(1L);
+    }
+
+    // Junit test for sparse fieldset with unknown field name
+    @Test
+    public void givenUnknownField_whenGetEmployees_thenReturn400() throws Exception {
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("fields", "id,salary"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt(), any());
+    }
+
+    // Junit test for Smile request and response (Accept / Content-Type : application/x-jackson-smile)
+    @Test
+    public void givenSmileAcceptAndContentType_whenCreateEmployee_thenReadAndWriteSmile() throws Exception {
+        // given - precondition or setup
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().createXmlMapper(false).factory(new SmileFactory()).build();
+        Employee employee = Employee.builder()
+                .firstName("Banana")
+                .lastName("Kim")
+                .email("banana@gmail.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when - action or the behaviour that we are going test
+        MvcResult result = mockMvc.perform(post("/api/employees")
+                        .contentType(SmileConfig.APPLICATION_SMILE_VALUE)
+                        .accept(SmileConfig.APPLICATION_SMILE_VALUE)
+                        .content(smileMapper.writeValueAsBytes(employee)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SmileConfig.APPLICATION_SMILE_VALUE))
+                .andReturn();
+
+        // then - verify the output
+        Employee saved = smileMapper.readValue(result.getResponse().getContentAsByteArray(), Employee.class);
+        assertThat(saved.getFirstName()).isEqualTo("Banana");
+        assertThat(saved.getEmail()).isEqualTo("banana@gmail.com");
+    }
+
     // negative scenario - valid employee id
     // Junit test for Get employee by id REST API
     @Test
@@ -136,6 +405,73 @@ public class EmployeeControllerTests {
 
     }
 
+    // conditional GET - ETag / Last-Modified 가 붙는다.
+    @Test
+    public void givenEmployeeWithVersion_whenGetEmployeeById_thenReturnsETagAndLastModified() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Banana")
+                .lastName("Kim")
+                .email("banana@gmail.com")
+                .version(3L)
+                .updatedAt(Instant.parse("2024-01-02T03:04:05Z"))
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Tue, 02 Jan 2024 03:04:05 GMT"));
+    }
+
+    // conditional GET - If-None-Match 가 현재 version 과 같으면 entity 를 읽지 않고 304
+    @Test
+    public void givenMatchingIfNoneMatch_whenGetEmployeeById_thenReturns304WithoutLoadingEmployee() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
+    // conditional GET - 페이지의 (id, version) 으로 만든 ETag 가 같으면 entity 를 읽지 않고 304
+    @Test
+    public void givenMatchingIfNoneMatch_whenGetEmployeesPage_thenReturns304WithoutLoadingEmployees() throws Exception {
+        // given - precondition or setup
+        EmployeeVersionView version1 = mock(EmployeeVersionView.class);
+        given(version1.getId()).willReturn(3L);
+        given(version1.getVersion()).willReturn(2L);
+        EmployeeVersionView version2 = mock(EmployeeVersionView.class);
+        given(version2.getId()).willReturn(7L);
+        given(version2.getVersion()).willReturn(3L);
+        given(employeeService.getEmployeeVersionsAfter(0L, 2)).willReturn(new EmployeePage<>(List.of(version1, version2), 7L));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "2")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"2-7-5-more\""));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified());
+        verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+    }
+
     // positive scenario
     // Junit test for update employee REST API
     @Test
@@ -154,9 +490,9 @@ public class EmployeeControllerTests {
                 .email("yellow@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee)); // db에 있는 데이터를 가져오는 것으로 가장
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        // UPDATE 한 문장으로 수정 - 조회(getEmployeeById) 없이 수정 결과를 받는다.
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willAnswer((invocation) -> Optional.of(invocation.getArgument(1))); // 수정된 row 가 있는 것으로 가장
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -184,9 +520,7 @@ public class EmployeeControllerTests {
                 .email("yellow@gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty()); // db에 있는 데이터를 가져오는 것으로 가장
-        given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class))).willReturn(Optional.empty()); // 수정된 row 가 없는 것으로 가장
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -198,13 +532,39 @@ public class EmployeeControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    // negative scenario - version conflict
+    // Junit test for update employee REST API
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenReturn409() throws Exception {
+        // given - precondition or setup
+        long employeeId = 1L;
+
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Yellow")
+                .lastName("color")
+                .email("yellow@gmail.com")
+                .version(3L)
+                .build();
+
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId)); // 다른 요청이 먼저 수정한 것으로 가장
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isConflict());
+    }
+
     // Junit test for delete employee REST API
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
         // given - precondition or setup
         long employeeId = 1L;
-        // willDoNothing() : the mock will not return anything
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
@@ -213,4 +573,37 @@ public class EmployeeControllerTests {
         response.andDo(print())
                 .andExpect(status().isOk());
     }
+
+    // Junit test for delete employee REST API with missing id
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+        // given - precondition or setup
+        given(employeeService.deleteEmployee(1L)).willReturn(false);
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    // Junit test for bulk delete employees REST API
+    @Test
+    public void givenIds_whenDeleteEmployees_thenReturnDeletedCountAndNotFoundIds() throws Exception {
+        // given - precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L)))
+                .willReturn(new EmployeeDeleteResult(2, List.of(3L)));
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3]"));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(2)))
+                .andExpect(jsonPath("$.notFound[0]", is(3)));
+    }
 }
\ No newline at end of file
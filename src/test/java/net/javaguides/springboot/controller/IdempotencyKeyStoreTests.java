@@ -0,0 +1,149 @@
+package net.javaguides.springboot.controller;
+
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdempotencyKeyStoreTests {
+
+    private final IdempotencyKeyStore store = new IdempotencyKeyStore(1000, Duration.ofHours(1), Duration.ofSeconds(10));
+
+    private final Employee request = Employee.builder()
+            .firstName("Banana")
+            .lastName("Kim")
+            .email("banana@gmail.com")
+            .build();
+
+    @DisplayName("Junit test for concurrent requests with the same key")
+    @Test
+    public void givenConcurrentRequestsWithSameKey_whenExecute_thenActionRunsOnce() throws Exception {
+        // given - precondition or setup
+        AtomicInteger inserts = new AtomicInteger();
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when - action or the behaviour that we are going test
+        List<Future<IdempotencyKeyStore.Result>> results = new ArrayList<>();
+        try {
+            results.add(executor.submit(() -> store.execute("key-1", request, () -> {
+                insertStarted.countDown();
+                await(releaseInsert);
+                return saved(inserts.incrementAndGet());
+            })));
+            insertStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> store.execute("key-1", request, () -> saved(inserts.incrementAndGet()))));
+            }
+            releaseInsert.countDown();
+
+            // then - verify the output
+            for (Future<IdempotencyKeyStore.Result> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).employee().getId()).isEqualTo(1L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(inserts.get()).isEqualTo(1);
+        assertThat(results.get(0).get().replayed()).isFalse();
+        assertThat(results.subList(1, results.size())).allSatisfy(result -> assertThat(result.get().replayed()).isTrue());
+    }
+
+    @DisplayName("Junit test for key reused with a different request")
+    @Test
+    public void givenKeyUsedWithOtherBody_whenExecute_thenUnprocessableEntity() {
+        // given - precondition or setup
+        store.execute("key-1", request, () -> saved(1));
+        Employee other = Employee.builder().firstName("Apple").lastName("Kim").email("apple@gmail.com").build();
+
+        // when - action or the behaviour that we are going test
+
+        // then - verify the output
+        assertThatThrownBy(() -> store.execute("key-1", other, () -> saved(2)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @DisplayName("Junit test for key reused with a request whose hash collides")
+    @Test
+    public void givenKeyUsedWithCollidingBody_whenExecute_thenUnprocessableEntity() {
+        // given - precondition or setup
+        // "Aa" 와 "BB" 는 hashCode 가 같다. -> 필드 hash 로 비교하면 같은 요청으로 보인다.
+        Employee first = Employee.builder().firstName("Aa").lastName("Kim").email("banana@gmail.com").build();
+        Employee colliding = Employee.builder().firstName("BB").lastName("Kim").email("banana@gmail.com").build();
+        store.execute("key-1", first, () -> saved(1));
+
+        // when - action or the behaviour that we are going test
+
+        // then - verify the output
+        assertThatThrownBy(() -> store.execute("key-1", colliding, () -> saved(2)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @DisplayName("Junit test for failed first request")
+    @Test
+    public void givenFailedFirstRequest_whenRetry_thenActionRunsAgain() {
+        // given - precondition or setup
+        assertThatThrownBy(() -> store.execute("key-1", request, () -> {
+            throw new ResourceNotFoundException("Employee already exist with given email:" + request.getEmail());
+        })).isInstanceOf(ResourceNotFoundException.class);
+
+        // when - action or the behaviour that we are going test
+        IdempotencyKeyStore.Result result = store.execute("key-1", request, () -> saved(1));
+
+        // then - verify the output
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.employee().getId()).isEqualTo(1L);
+    }
+
+    @DisplayName("Junit test for first request failing with an Error")
+    @Test
+    public void givenFirstRequestThrowingError_whenRetry_thenActionRunsAgain() {
+        // given - precondition or setup
+        assertThatThrownBy(() -> store.execute("key-1", request, () -> {
+            throw new OutOfMemoryError("test");
+        })).isInstanceOf(OutOfMemoryError.class);
+
+        // when - action or the behaviour that we are going test
+        IdempotencyKeyStore.Result result = store.execute("key-1", request, () -> saved(1));
+
+        // then - verify the output
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.employee().getId()).isEqualTo(1L);
+    }
+
+    private Employee saved(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .email(request.getEmail())
+                .version(0L)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.service.EmployeeChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+change feed 통합 테스트 - outbox 기록(같은 transaction) -> relay -> long-poll / SSE
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.changes.poll-interval=100ms",
+        "employee.changes.gap-timeout=200ms"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class EmployeeChangeFeedITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmployeeChangeService employeeChangeService;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void givenCreateUpdateDelete_whenLongPollChanges_thenReturnChangesInOrder() throws Exception {
+        // given - precondition or setup
+        long since = employeeChangeRepository.findMaxSeq();
+        long id = create("banana@gmail.com");
+        mockMvc.perform(put("/api/employees/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Apple").lastName("Kim").email("apple@gmail.com").build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/employees/{id}", id)).andExpect(status().isOk());
+
+        // when - action or the behaviour that we are going test
+        // relay 가 나눠서 발행할 수 있으므로 마지막 seq 를 since 로 다시 요청한다.
+        List<JsonNode> changes = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (changes.size() < 3 && System.currentTimeMillis() < deadline) {
+            for (JsonNode change : longPoll(since)) {
+                changes.add(change);
+                since = change.get("seq").asLong();
+            }
+        }
+
+        // then - verify the output
+        assertThat(changes).extracting(change -> change.get("type").asText()).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(changes).allSatisfy(change -> assertThat(change.get("employeeId").asLong()).isEqualTo(id));
+        assertThat(changes.get(1).get("email").asText()).isEqualTo("apple@gmail.com");
+    }
+
+    @Test
+    public void givenTransactionCommittingAfterGapTimeout_whenGetChanges_thenLateChangeIsRequeued() throws Exception {
+        // given - precondition or setup
+        // seq 를 먼저 발급받고 gap-timeout 보다 늦게 commit 하는 transaction
+        long since = employeeChangeRepository.findMaxSeq();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slowTransaction = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    employeeChangeRepository.saveAndFlush(EmployeeChange.builder()
+                            .employeeId(0L)
+                            .type(EmployeeChange.Type.DELETED)
+                            .changedAt(Instant.now())
+                            .build());
+                    inserted.countDown();
+                    try {
+                        commit.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+        create("late@gmail.com");
+
+        // when - action or the behaviour that we are going test
+        // commit 전에 받아 간 client 는 그 seq 를 지나간다. - 늦게 commit 된 변경은 새 seq 로 다시 기록되어야 받을 수 있다.
+        List<JsonNode> changes = new ArrayList<>();
+        long holdUntil = System.currentTimeMillis() + 1_000; // gap-timeout(200ms) 이 여러 번 지나도록
+        while (System.currentTimeMillis() < holdUntil) {
+            // MockMvc 는 DeferredResult timeout 을 발생시키지 않으므로 빈 long-poll 대신 발행된 범위를 직접 읽는다.
+            for (EmployeeChange change : employeeChangeService.getChanges(since, 100)) {
+                changes.add(objectMapper.valueToTree(change));
+                since = change.getSeq();
+            }
+            Thread.sleep(100);
+        }
+        commit.countDown();
+        slowTransaction.get(10, TimeUnit.SECONDS);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (changes.size() < 2 && System.currentTimeMillis() < deadline) {
+            for (EmployeeChange change : employeeChangeService.getChanges(since, 100)) {
+                changes.add(objectMapper.valueToTree(change));
+                since = change.getSeq();
+            }
+            Thread.sleep(100);
+        }
+
+        // then - verify the output
+        assertThat(changes).extracting(change -> change.get("type").asText()).containsExactly("CREATED", "DELETED");
+    }
+
+    @Test
+    public void givenOpenStream_whenCreateEmployee_thenSseEventWithSeqId() throws Exception {
+        // given - precondition or setup
+        long since = employeeChangeRepository.findMaxSeq();
+        // SSE 응답 header 는 첫 event 와 함께 전송되므로 응답을 기다리지 않고 요청만 보낸다.
+        CompletableFuture<HttpResponse<Stream<String>>> stream = HttpClient.newHttpClient().sendAsync(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees/changes?since=" + since))
+                        .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                        .build(),
+                HttpResponse.BodyHandlers.ofLines());
+
+        // when - action or the behaviour that we are going test
+        create("cherry@gmail.com");
+
+        // then - verify the output
+        HttpResponse<Stream<String>> response = stream.get(10, TimeUnit.SECONDS);
+        try (Stream<String> lines = response.body()) {
+            List<String> event = CompletableFuture.supplyAsync(() -> {
+                List<String> read = new ArrayList<>();
+                lines.takeWhile(line -> !line.isEmpty()).forEach(read::add);
+                return read;
+            }).get(10, TimeUnit.SECONDS);
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(event).anySatisfy(line -> assertThat(line).isEqualTo("id:" + (since + 1)));
+            assertThat(event).contains("event:change");
+            assertThat(event).anySatisfy(line -> assertThat(line).startsWith("data:").contains("cherry@gmail.com"));
+        }
+    }
+
+    private long create(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Banana").lastName("Kim").email(email).build())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private List<JsonNode> longPoll(long since) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/employees/changes")
+                        .param("since", String.valueOf(since))
+                        .param("waitMillis", "2000")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+        String body = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+        List<JsonNode> changes = new ArrayList<>();
+        objectMapper.readTree(body).forEach(changes::add);
+        return changes;
+    }
+}
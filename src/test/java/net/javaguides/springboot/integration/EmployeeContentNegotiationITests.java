@@ -0,0 +1,120 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import net.javaguides.springboot.config.SmileConfig;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+content negotiation + 응답 압축 통합 테스트 (Tomcat 에서 실행 - MockMvc 는 압축하지 않는다.)
+- Accept 로 JSON / Smile 선택, Accept-Encoding: gzip 이면 min-response-size(2KB) 보다 큰 응답만 gzip
+java.net.http.HttpClient 는 gzip 을 풀지 않으므로 받은 byte 를 그대로 확인한다.
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class EmployeeContentNegotiationITests {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json()
+            .createXmlMapper(false).factory(new SmileFactory()).build();
+
+    @Test
+    public void givenManyEmployees_whenGetListAsJsonAndSmile_thenGzipAndSameContent() throws Exception {
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            employees.add(Employee.builder()
+                    .firstName("Banana" + i).lastName("Kim").email("negotiation" + i + "@gmail.com").build());
+        }
+        HttpResponse<byte[]> created = send(HttpRequest.newBuilder(uri("/api/employees/batch"))
+                .header("Content-Type", SmileConfig.APPLICATION_SMILE_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(smileMapper.writeValueAsBytes(employees))));
+        assertThat(created.statusCode()).isEqualTo(201);
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<byte[]> json = send(HttpRequest.newBuilder(uri("/api/employees?limit=200"))
+                .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                .header("Accept-Encoding", "gzip"));
+        HttpResponse<byte[]> smile = send(HttpRequest.newBuilder(uri("/api/employees?limit=200"))
+                .header("Accept", SmileConfig.APPLICATION_SMILE_VALUE)
+                .header("Accept-Encoding", "gzip"));
+
+        // then - verify the output
+        assertThat(json.statusCode()).isEqualTo(200);
+        assertThat(json.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(smile.statusCode()).isEqualTo(200);
+        assertThat(smile.headers().firstValue("Content-Type")).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith(SmileConfig.APPLICATION_SMILE_VALUE));
+        assertThat(smile.headers().firstValue("Content-Encoding")).hasValue("gzip");
+
+        byte[] jsonBody = gunzip(json.body());
+        byte[] smileBody = gunzip(smile.body());
+        JsonNode fromJson = objectMapper.readTree(jsonBody);
+        JsonNode fromSmile = smileMapper.readTree(smileBody);
+        assertThat(fromSmile).isEqualTo(fromJson);
+        assertThat(fromJson.get("content").size()).isEqualTo(200);
+        assertThat(smileBody.length).isLessThan(jsonBody.length);
+    }
+
+    @Test
+    public void givenSmallResponse_whenGetEmployeeById_thenNotCompressed() throws Exception {
+        // given - precondition or setup
+        HttpResponse<byte[]> created = send(HttpRequest.newBuilder(uri("/api/employees"))
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Employee.builder()
+                        .firstName("Cherry").lastName("Kim").email("negotiation-small@gmail.com").build()))));
+        long id = objectMapper.readTree(created.body()).get("id").asLong();
+
+        // when - action or the behaviour that we are going test
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/api/employees/" + id))
+                .header("Accept-Encoding", "gzip"));
+
+        // then - verify the output
+        // 2KB 보다 작은 응답은 압축하지 않는다.
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(objectMapper.readTree(response.body()).get("email").asText()).isEqualTo("negotiation-small@gmail.com");
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package net.javaguides.springboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.support.StatementCounter;
+import net.javaguides.springboot.support.StatementCountingConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static net.javaguides.springboot.support.StatementCounter.assertDeleteCount;
+import static net.javaguides.springboot.support.StatementCounter.assertInsertCount;
+import static net.javaguides.springboot.support.StatementCounter.assertSelectCount;
+import static net.javaguides.springboot.support.StatementCounter.assertStatementsAtMost;
+import static net.javaguides.springboot.support.StatementCounter.assertUpdateCount;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -35,6 +47,9 @@ this will load all the beans from all the layers into the application.
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@ActiveProfiles("test") // embedded H2 (application-test.properties)
+// CRUD API 별 SQL statement 수 상한 (StatementCounter) - 넘으면 build 실패
+@Import(StatementCountingConfig.class)
 public class EmployeeControllerITests {
     @Autowired
     private MockMvc mockMvc; // Injecting MockMvc class to make HTTP request using perform() method
@@ -42,6 +57,8 @@ public class EmployeeControllerITests {
     private EmployeeRepository employeeRepository; // Injecting EmployeeRepository to use its method's to perform different operations on database
     @Autowired
     private ObjectMapper objectMapper; // ObjectMapper for serialization and deserialization
+    @Autowired
+    private MeterRegistry meterRegistry; // EmployeeMetricsAspect 가 기록한 metric 확인용
 
     @BeforeEach
     void setup() { // clean for each and every test case
@@ -57,6 +74,8 @@ public class EmployeeControllerITests {
                 .email("banana@gmail.com")
                 .build();
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(post("/api/employees") // post REST API 호출
                 .contentType(MediaType.APPLICATION_JSON) // Json type
@@ -70,6 +89,42 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
 
+
+        // statement budget : 중복 email 검사 SELECT + INSERT + outbox INSERT
+        assertSelectCount(1);
+        assertInsertCount(2);
+        assertStatementsAtMost(3);
+    }
+
+    @Test
+    public void givenIdempotencyKey_whenRetryCreateEmployee_thenReplayWithoutStatements() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Banana")
+                .lastName("Kim")
+                .email("banana@gmail.com")
+                .build();
+        String firstResponse = mockMvc.perform(post("/api/employees")
+                        .header("Idempotency-Key", "it-create-banana")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test (timeout 후 재시도)
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Idempotency-Key", "it-create-banana")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output - 중복 email 오류 대신 첫 응답, DB 는 사용하지 않는다.
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(objectMapper.readTree(firstResponse).get("id").asInt())));
+        assertStatementsAtMost(0);
+        assertThat(employeeRepository.count()).isEqualTo(1);
     }
 
     @Test
@@ -80,6 +135,8 @@ public class EmployeeControllerITests {
         listOfEmployees.add(Employee.builder().firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build());
         employeeRepository.saveAll(listOfEmployees); // 데이터베이스에 레코드 저장
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(get("/api/employees"));
 
@@ -87,7 +144,11 @@ public class EmployeeControllerITests {
         // andExpect() : 응답 검증
         response.andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())));
+                .andExpect(jsonPath("$.content.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // statement budget : SELECT 한 번 (N+1 없음)
+        assertStatementsAtMost(1);
     }
 
     @Test
@@ -101,6 +162,8 @@ public class EmployeeControllerITests {
 
         employeeRepository.save(employee);
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(get("/api/employees/{id}", employee.getId()));
 
@@ -112,6 +175,50 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
+
+        // statement budget : cache miss 일 때 SELECT 한 번
+        assertStatementsAtMost(1);
+    }
+
+    @Test
+    public void givenIds_whenLookupEmployees_thenOneInQueryThenServedFromCache() throws Exception {
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            employees.add(Employee.builder().firstName("Banana" + i).lastName("Kim").email("banana" + i + "@gmail.com").build());
+        }
+        employeeRepository.saveAll(employees);
+        List<Long> ids = new ArrayList<>();
+        employees.forEach(employee -> ids.add(0, employee.getId()));
+        long missingId = ids.get(0) + 100;
+        ids.add(2, missingId);
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.length()", is(5)))
+                .andExpect(jsonPath("$.employees[0].id", is(ids.get(0).intValue())))
+                .andExpect(jsonPath("$.employees[4].id", is(ids.get(5).intValue())))
+                .andExpect(jsonPath("$.notFound[0]", is((int) missingId)));
+
+        // statement budget : GET /{id} N 번 대신 IN (...) SELECT 한 번
+        assertSelectCount(1);
+        assertStatementsAtMost(1);
+
+        // 읽은 row 는 id cache 에 들어간다. - 다시 조회하면 SQL 없이 응답
+        StatementCounter.reset();
+        mockMvc.perform(get("/api/employees").param("ids", ids.get(1) + "," + ids.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].id", is(ids.get(1).intValue())))
+                .andExpect(jsonPath("$.notFound.length()", is(0)));
+        assertStatementsAtMost(0);
     }
 
     @Test
@@ -125,6 +232,8 @@ public class EmployeeControllerITests {
                 .build();
         employeeRepository.save(employee);
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
 
@@ -133,6 +242,9 @@ public class EmployeeControllerITests {
         response.andDo(print())
                 .andExpect(status().isNotFound());
 
+
+        // statement budget : SELECT 한 번
+        assertStatementsAtMost(1);
     }
 
     @Test
@@ -152,6 +264,8 @@ public class EmployeeControllerITests {
                 .build();
 
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -162,7 +276,14 @@ public class EmployeeControllerITests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
-                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
+                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        // statement budget : UPDATE 한 문장 (조회 -> merge 없음) + version 없는 요청이므로 version 만 PK 조회 + outbox INSERT
+        assertSelectCount(1);
+        assertUpdateCount(1);
+        assertInsertCount(1);
+        assertStatementsAtMost(3);
     }
 
     @Test
@@ -184,6 +305,8 @@ public class EmployeeControllerITests {
                 .build();
 
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -192,6 +315,9 @@ public class EmployeeControllerITests {
         // then - verify the output
         response.andDo(print())
                 .andExpect(status().isNotFound());
+
+        // statement budget : version 없는 요청은 0 row UPDATE 로 끝난다.
+        assertStatementsAtMost(1);
     }
 
     @Test
@@ -204,11 +330,166 @@ public class EmployeeControllerITests {
                 .build();
         employeeRepository.save(savedEmployee);
 
+        StatementCounter.reset();
+
         // when - action or the behaviour that we are going test
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId()));
 
         // then - verify the output
         response.andDo(print())
                 .andExpect(status().isOk());
+
+        // statement budget : DELETE 한 문장 + outbox INSERT (SELECT 없음)
+        assertSelectCount(0);
+        assertDeleteCount(1);
+        assertInsertCount(1);
+        assertStatementsAtMost(2);
+    }
+
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+        // given - precondition or setup
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+        assertDeleteCount(1);
+        assertStatementsAtMost(1);
+    }
+
+    @Test
+    public void givenIds_whenDeleteEmployees_thenDeleteSetBasedInOneTransaction() throws Exception {
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            employees.add(Employee.builder().firstName("Banana" + i).lastName("Kim").email("banana" + i + "@gmail.com").build());
+        }
+        employeeRepository.saveAll(employees);
+        List<Long> ids = new ArrayList<>();
+        employees.forEach(employee -> ids.add(employee.getId()));
+        long missingId = ids.get(ids.size() - 1) + 100;
+        ids.add(missingId);
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ids)));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(5)))
+                .andExpect(jsonPath("$.notFound.length()", is(1)));
+
+        // statement budget : chunk 하나 - SELECT id IN + DELETE IN + outbox batch INSERT (row 수와 상관없음)
+        assertSelectCount(1);
+        assertDeleteCount(1);
+        assertInsertCount(1);
+        assertStatementsAtMost(3);
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenRecordServiceAndRepositoryMetrics() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build();
+        long saveCount = meterRegistry.timer("employee.service", "method", "saveEmployee", "signature", "(Employee)", "exception", "none").count();
+        long findCount = meterRegistry.timer("employee.repository", "method", "findByEmail", "signature", "(String)", "exception", "none").count();
+
+        // when - action or the behaviour that we are going test
+        mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+
+        // then - verify the output : controller -> service -> repository 호출이 모두 기록된다.
+        assertThat(meterRegistry.timer("employee.service", "method", "saveEmployee", "signature", "(Employee)", "exception", "none").count())
+                .isEqualTo(saveCount + 1);
+        assertThat(meterRegistry.timer("employee.repository", "method", "findByEmail", "signature", "(String)", "exception", "none").count())
+                .isEqualTo(findCount + 1);
+    }
+
+    @Test
+    public void givenETagFromPreviousResponse_whenGetEmployeeById_thenReturn304WithVersionOnlyQuery() throws Exception {
+        // given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(
+                Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build());
+        String eTag = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        // then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotModified());
+        // statement budget : version 만 조회하는 SELECT 한 번
+        assertStatementsAtMost(1);
+    }
+
+    @Test
+    public void givenListETag_whenEmployeeUpdated_thenListETagChanges() throws Exception {
+        // given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(
+                Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("Apple").lastName("Lee").email("apple@gmail.com").build());
+        String eTag = mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when - action or the behaviour that we are going test
+        StatementCounter.reset();
+        ResultActions notModified = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, eTag));
+        assertStatementsAtMost(1); // statement budget : 페이지 범위 (id, version) SELECT 한 번
+
+        mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        Employee.builder().firstName("Yellow").lastName("Kim").email("banana@gmail.com").build())))
+                .andExpect(status().isOk());
+        ResultActions modified = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        // then - verify the output
+        notModified.andExpect(status().isNotModified());
+        modified.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(2)));
+    }
+
+    @Test
+    public void givenFields_whenGetEmployees_thenSelectOnlyRequestedColumns() throws Exception {
+        // given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(
+                Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build());
+        employeeRepository.save(Employee.builder().firstName("Apple").lastName("Lee").email("apple@gmail.com").build());
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        ResultActions list = mockMvc.perform(get("/api/employees").param("fields", "id,email"));
+        ResultActions one = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()).param("fields", "email"));
+
+        // then - verify the output
+        list.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(2)))
+                .andExpect(jsonPath("$.content[0].size()", is(2)));
+        one.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$.email", is("banana@gmail.com")));
+        // statement budget : 요청마다 SELECT 한 번, select 절에는 요청한 컬럼만
+        assertSelectCount(2);
+        assertStatementsAtMost(2);
+        assertThat(StatementCounter.statements()).allSatisfy(sql ->
+                assertThat(sql).doesNotContain("first_name").doesNotContain("last_name").doesNotContain("version"));
     }
 }
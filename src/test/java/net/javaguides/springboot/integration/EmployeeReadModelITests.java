@@ -0,0 +1,152 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeReadModel;
+import net.javaguides.springboot.support.StatementCounter;
+import net.javaguides.springboot.support.StatementCountingConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static net.javaguides.springboot.support.StatementCounter.assertStatementsAtMost;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+read model 통합 테스트 - 시작 시 적재 + commit 후 반영 + change feed 반영, 조회는 SQL 없이
+employees 를 repository 로 직접 지우면 read model 에 반영되지 않으므로 테스트마다 다른 email 을 사용한다.
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.read-model.enabled=true",
+        "employee.changes.poll-interval=100ms"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import(StatementCountingConfig.class)
+public class EmployeeReadModelITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeReadModel employeeReadModel;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Test
+    public void givenWritesThroughApi_whenReadById_thenServedWithoutStatements() throws Exception {
+        // given - precondition or setup
+        assertThat(employeeReadModel.isReady()).isTrue();
+        long id = create("banana@gmail.com");
+        mockMvc.perform(put("/api/employees/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Apple").lastName("Kim").email("apple@gmail.com").build())))
+                .andExpect(status().isOk());
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("Apple")))
+                .andExpect(jsonPath("$.email", is("apple@gmail.com")))
+                // version 없이 보낸 PUT 도 DB 의 version (create 0 -> 1) 과 ETag 를 돌려준다.
+                .andExpect(jsonPath("$.version", is(1)))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""));
+
+        // then - verify the output
+        assertThat(employeeService.getEmployeeByEmail("apple@gmail.com")).map(Employee::getId).contains(id);
+        assertThat(employeeService.getEmployeeByEmail("banana@gmail.com")).isEmpty();
+        assertThat(employeeService.getEmployeesByName("Apple", "Kim")).extracting(Employee::getId).containsExactly(id);
+        assertStatementsAtMost(0);
+
+        mockMvc.perform(delete("/api/employees/{id}", id)).andExpect(status().isOk());
+        StatementCounter.reset();
+        mockMvc.perform(get("/api/employees/{id}", id)).andExpect(status().isNotFound());
+        assertStatementsAtMost(0);
+    }
+
+    @Test
+    public void givenRowsWrittenBehindTheService_whenReload_thenStreamingScanLoadsThem() {
+        // given - precondition or setup (repository 로 직접 저장 - 이벤트가 발행되지 않는다.)
+        List<Employee> saved = employeeRepository.batchInsert(List.of(
+                Employee.builder().firstName("Hazel").lastName("Tree").email("HazelTree@coffee.com").build(),
+                Employee.builder().firstName("Hazel").lastName("Nut").email("HazelNut@coffee.com").build()));
+
+        // when - action or the behaviour that we are going test
+        employeeReadModel.reload();
+
+        // then - verify the output
+        StatementCounter.reset();
+        assertThat(employeeReadModel.isReady()).isTrue();
+        assertThat(employeeService.getEmployeeById(saved.get(0).getId())).map(Employee::getEmail).contains("HazelTree@coffee.com");
+        assertThat(employeeService.getEmployeeByEmail("hazelnut@coffee.com")).map(Employee::getId).contains(saved.get(1).getId());
+        assertStatementsAtMost(0);
+    }
+
+    @Test
+    public void givenWriteFromAnotherInstance_whenChangeFeedRelaysIt_thenReadModelFollows() throws InterruptedException {
+        // given - precondition or setup (다른 instance 의 쓰기 - employees 와 outbox 에만 기록되고 이 instance 의 이벤트는 없다.)
+        Employee saved = employeeRepository.batchInsert(List.of(
+                Employee.builder().firstName("Remote").lastName("Lee").email("apple.remote@gmail.com").build())).get(0);
+        employeeChangeRepository.save(EmployeeChange.builder()
+                .employeeId(saved.getId())
+                .type(EmployeeChange.Type.CREATED)
+                .firstName("Remote").lastName("Lee").email("apple.remote@gmail.com")
+                .version(0L)
+                .changedAt(Instant.now())
+                .build());
+
+        // when - action or the behaviour that we are going test (relay 가 poll-interval 마다 발행한다.)
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (employeeReadModel.findById(saved.getId()).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // then - verify the output
+        assertThat(employeeReadModel.findById(saved.getId())).map(Employee::getEmail).contains("apple.remote@gmail.com");
+        StatementCounter.reset();
+        assertThat(employeeService.getEmployeeByEmail("apple.remote@gmail.com")).map(Employee::getId).contains(saved.getId());
+        assertStatementsAtMost(0);
+    }
+
+    private long create(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Banana").lastName("Kim").email(email).build())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
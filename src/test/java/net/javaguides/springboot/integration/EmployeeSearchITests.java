@@ -0,0 +1,88 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeSearchIndex;
+import net.javaguides.springboot.support.StatementCounter;
+import net.javaguides.springboot.support.StatementCountingConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static net.javaguides.springboot.support.StatementCounter.assertSelectCount;
+import static net.javaguides.springboot.support.StatementCounter.assertStatementsAtMost;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+검색 index 통합 테스트 - 시작 시 적재 + commit 후 반영, 검색은 LIKE 없이 id IN (...) SELECT 한 번
+employees 를 repository 로 직접 지우면 검색 index 에 반영되지 않으므로 테스트마다 다른 이름을 사용한다.
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.search.enabled=true"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import(StatementCountingConfig.class)
+public class EmployeeSearchITests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Test
+    public void givenWritesThroughApi_whenSearch_thenIndexFollowsCommits() throws Exception {
+        // given - precondition or setup
+        assertThat(employeeSearchIndex.isReady()).isTrue();
+        long hazel = create("Hazel", "Tree", "HazelTree@coffee.com");
+        long hazelnut = create("Hazelnut", "Kim", "nut@coffee.com");
+        mockMvc.perform(put("/api/employees/{id}", hazel)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Hazel").lastName("Oak").email("HazelOak@coffee.com").build())))
+                .andExpect(status().isOk());
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        mockMvc.perform(get("/api/employees/search").param("q", "haz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is((int) hazel)))
+                .andExpect(jsonPath("$[0].lastName", is("Oak")))
+                .andExpect(jsonPath("$[1].id", is((int) hazelnut)));
+
+        // then - verify the output
+        // statement budget : id IN (...) SELECT 한 번 (LIKE scan 없음)
+        assertSelectCount(1);
+        assertStatementsAtMost(1);
+
+        mockMvc.perform(get("/api/employees/search").param("q", "tree")).andExpect(jsonPath("$.size()", is(0)));
+        mockMvc.perform(delete("/api/employees/{id}", hazelnut)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees/search").param("q", "nut@coffee")).andExpect(jsonPath("$.size()", is(0)));
+    }
+
+    private long create(String firstName, String lastName, String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName(firstName).lastName(lastName).email(email).build())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
@@ -0,0 +1,173 @@
+package net.javaguides.springboot.integration;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+reactive profile 통합 테스트 - WebFlux router + ReactiveEmployeeService + R2DBC
+H2 in-memory DB 하나를 JDBC(JPA 의 schema 생성, test data) 와 R2DBC 가 같은 이름(reactive)으로 공유한다.
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles({"test", "reactive"})
+@AutoConfigureWebTestClient
+public class ReactiveEmployeeRouterITests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build();
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        // then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNumber()
+                .jsonPath("$.email").isEqualTo(employee.getEmail())
+                .jsonPath("$.version").isEqualTo(0);
+        assertThat(employeeRepository.findByEmail(employee.getEmail())).isPresent();
+    }
+
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployeesAsNdjson_thenStreamEmployees() {
+        // given - precondition or setup
+        employeeRepository.saveAll(List.of(
+                Employee.builder().firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build(),
+                Employee.builder().firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build()));
+
+        // when - action or the behaviour that we are going test
+        List<Employee> employees = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.parseMediaType("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Employee.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("parkJiyun@gmail.com", "kimEnjun@gmail.com");
+    }
+
+    @Test
+    public void givenEmployees_whenGetEmployeesPage_thenReturnPageWithCursor() {
+        // given - precondition or setup
+        employeeRepository.saveAll(List.of(
+                Employee.builder().firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build(),
+                Employee.builder().firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build()));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees?limit=1").exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].email").isEqualTo("parkJiyun@gmail.com")
+                .jsonPath("$.nextCursor").isNumber();
+    }
+
+    @Test
+    public void givenEmployees_whenGetEmployeesWithoutLimit_thenReturnFirstPage() {
+        // given - precondition or setup
+        employeeRepository.saveAll(List.of(
+                Employee.builder().firstName("Park").lastName("JiYun").email("parkJiyun@gmail.com").build(),
+                Employee.builder().firstName("Kim").lastName("EnJu").email("kimEnjun@gmail.com").build()));
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees").exchange();
+
+        // then - verify the output : 전체 배열이 아니라 기본 크기(100)의 첫 페이지
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", 1000L).exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenUpdatedEmployeeWithStaleVersion_whenUpdateEmployee_thenReturnConflict() {
+        // given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(
+                Employee.builder().firstName("Hazel").lastName("Tree").email("hazel@coffee.com").build());
+        Employee updatedEmployee = Employee.builder().firstName("Hazel").lastName("Nut").email("hazel@coffee.com")
+                .version(savedEmployee.getVersion()).build();
+
+        // when - action or the behaviour that we are going test
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId()).bodyValue(updatedEmployee).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.version").isEqualTo(savedEmployee.getVersion() + 1);
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId())
+                .bodyValue(updatedEmployee).exchange();
+
+        // then - verify the output
+        response.expectStatus().isEqualTo(409);
+        assertThat(employeeRepository.findById(savedEmployee.getId())).get()
+                .extracting(Employee::getLastName).isEqualTo("Nut");
+    }
+
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() {
+        // given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(
+                Employee.builder().firstName("Hazel").lastName("Tree").email("hazel@coffee.com").build());
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId()).exchange();
+
+        // then - verify the output
+        response.expectStatus().isOk();
+        assertThat(employeeRepository.existsById(savedEmployee.getId())).isFalse();
+    }
+
+    @Test
+    public void givenInvalidEmployeeId_whenDeleteEmployee_thenReturn404() {
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", 1000L).exchange();
+
+        // then - verify the output
+        response.expectStatus().isNotFound();
+    }
+}
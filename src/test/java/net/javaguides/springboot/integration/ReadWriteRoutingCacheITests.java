@@ -0,0 +1,95 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+read/write splitting + id cache 통합 테스트
+다른 client 의 PUT 이 replica 에 반영되기 전에 읽어도 이전 row 가 cache 에 들어가지 않아야 한다.
+(cache 에 들어갈 조회는 primary 에서 읽는다. - PrimaryReads)
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.replica.enabled=true",
+        "employee.replica.datasource.jdbc-url=" + ReadWriteRoutingCacheITests.REPLICA_URL,
+        "employee.replica.datasource.username=sa",
+        "employee.replica.datasource.password=",
+        "employee.replica.datasource.maximum-pool-size=4",
+        "spring.datasource.hikari.maximum-pool-size=6"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReadWriteRoutingCacheITests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-cache;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        employeeRepository.deleteAll();
+        ReadWriteRoutingITests.replicate(primaryDataSource, REPLICA_URL);
+    }
+
+    @Test
+    public void givenUpdateNotYetReplicated_whenOtherClientReadsTwice_thenNeverServeStaleRow() throws Exception {
+        // given - precondition or setup
+        String created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Banana").lastName("Kim").email("banana@gmail.com").build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        ReadWriteRoutingITests.replicate(primaryDataSource, REPLICA_URL);
+
+        // when - action or the behaviour that we are going test
+        // client A 의 PUT - replica 에는 아직 이전 email 이 남아 있다. (replicate 하지 않음)
+        mockMvc.perform(put("/api/employees/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder()
+                                .firstName("Banana").lastName("Kim").email("apple@gmail.com").build())))
+                .andExpect(status().isOk());
+
+        // then - verify the output
+        // client B (read-your-writes cookie 없음) - 첫 조회는 cache miss, 두 번째 조회는 cache hit
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("apple@gmail.com")));
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is("apple@gmail.com")));
+        mockMvc.perform(get("/api/employees").param("ids", String.valueOf(id)))
+                .andExpect(jsonPath("$.employees[0].email", is("apple@gmail.com")));
+    }
+}
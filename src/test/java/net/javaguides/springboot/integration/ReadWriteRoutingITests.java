@@ -0,0 +1,135 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+read/write splitting 통합 테스트 - H2 in-memory DB 두 개가 primary / replica 역할을 한다.
+replica 는 자동으로 따라오지 않으므로 replicate() 가 호출되기 전까지는 replica 의 data 가 primary 보다 늦은 상태(replication lag)다.
+cache 를 끄고 매 요청마다 DB 에서 읽는다.
+*/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.replica.enabled=true",
+        "employee.replica.datasource.jdbc-url=" + ReadWriteRoutingITests.REPLICA_URL,
+        "employee.replica.datasource.username=sa",
+        "employee.replica.datasource.password=",
+        "employee.replica.datasource.maximum-pool-size=4",
+        "spring.datasource.hikari.maximum-pool-size=6",
+        "spring.cache.type=none"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReadWriteRoutingITests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        employeeRepository.deleteAll();
+        replicate(primaryDataSource, REPLICA_URL);
+    }
+
+    @Test
+    public void givenEmployeeNotYetReplicated_whenGetEmployeeById_thenReadFromReplica() throws Exception {
+        // given - precondition or setup
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Banana").lastName("Kim").email("banana@gmail.com").build());
+
+        // when - action or the behaviour that we are going test
+        int beforeReplication = mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andReturn().getResponse().getStatus();
+        replicate(primaryDataSource, REPLICA_URL);
+        int afterReplication = mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andReturn().getResponse().getStatus();
+
+        // then - verify the output
+        assertThat(beforeReplication).isEqualTo(404);
+        assertThat(afterReplication).isEqualTo(200);
+    }
+
+    @Test
+    public void givenCookieFromCreate_whenGetEmployeeById_thenReadYourWritesFromPrimary() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Banana").lastName("Kim").email("banana@gmail.com").build();
+        MvcResult created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        Cookie cookie = created.getResponse().getCookie("employee-read-primary");
+
+        // when - action or the behaviour that we are going test
+        // 아직 replicate 하지 않았으므로 primary 에서 읽어야만 찾을 수 있다.
+
+        // then - verify the output
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+        mockMvc.perform(get("/api/employees/{id}", id).cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        mockMvc.perform(get("/api/employees/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    // primary 의 schema(index 포함) 와 data 를 replica 로 복사한다. - replication 을 흉내낸다.
+    static void replicate(DataSource primaryDataSource, String replicaUrl) throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection connection = primaryDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SCRIPT")) {
+            while (resultSet.next()) {
+                script.add(resultSet.getString(1));
+            }
+        }
+
+        try (Connection connection = DriverManager.getConnection(replicaUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
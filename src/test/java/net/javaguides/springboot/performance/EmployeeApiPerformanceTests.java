@@ -0,0 +1,152 @@
+package net.javaguides.springboot.performance;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+REST API 성능 회귀 테스트 - 실제 서버(RANDOM_PORT) + H2 in-memory DB, 외부 네트워크 / Docker 불필요
+workload 별로 동시 client 를 돌려서 throughput / latency(HdrHistogram) 를 측정하고 baseline 과 비교한다. (PerformanceBaseline)
+./mvnw -Pperformance test -Dtest=EmployeeApiPerformanceTests [-Dperformance.requests=20000] [-Dperformance.clients=128]
+*/
+// H2 MODE=MySQL 에서는 동시 INSERT 중 IDENTITY 값이 중복되어 PK 위반이 간헐적으로 발생하므로 기본 mode 를 사용한다.
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:performance;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "server.tomcat.accept-count=1000"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EmployeeApiPerformanceTests {
+
+    private static final int TABLE_SIZE = 1_000;
+
+    private static final int CLIENTS = Integer.getInteger("performance.clients", 64);
+
+    private static final int REQUESTS = Integer.getInteger("performance.requests", 5_000);
+
+    private static final PerformanceBaseline BASELINE = PerformanceBaseline.load();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private long[] ids;
+
+    private long[] deletableIds;
+
+    private final AtomicInteger nextDeletable = new AtomicInteger();
+
+    private final AtomicLong nextEmail = new AtomicLong();
+
+    @BeforeAll
+    void seed() {
+        ids = insert("seed", TABLE_SIZE);
+    }
+
+    @DisplayName("bulk list : full list + keyset pages")
+    @Order(1)
+    @Test
+    public void bulkList() throws Exception {
+        LoadResult result = harness()
+                .operation("list", 20, baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees")), status -> status == 200)
+                .operation("page", 80, baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees?limit=100&after="
+                        + ids[ThreadLocalRandom.current().nextInt(ids.length)])), status -> status == 200)
+                .run("bulk-list");
+
+        verify(result);
+    }
+
+    @DisplayName("read-heavy : 90% GET by id, 10% PUT")
+    @Order(2)
+    @Test
+    public void readHeavy() throws Exception {
+        LoadResult result = harness()
+                .operation("get", 90, baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/" + randomId())), status -> status == 200)
+                .operation("update", 10, this::update, status -> status == 200)
+                .run("read-heavy");
+
+        verify(result);
+    }
+
+    @DisplayName("write-heavy : 60% POST, 30% PUT, 10% DELETE")
+    @Order(3)
+    @Test
+    public void writeHeavy() throws Exception {
+        // DELETE 대상 - 요청 비율(10%)보다 넉넉하게 만들어서 같은 id 를 두 번 지우지 않는다.
+        deletableIds = insert("deletable", REQUESTS / 5 + CLIENTS * 2);
+
+        LoadResult result = harness()
+                .operation("create", 60, baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json("Load", "Create",
+                                "create-" + nextEmail.incrementAndGet() + "@load.com"))), status -> status == 201)
+                .operation("update", 30, this::update, status -> status == 200)
+                .operation("delete", 10, baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/"
+                        + deletableIds[nextDeletable.getAndIncrement() % deletableIds.length])).DELETE(), status -> status == 200)
+                .run("write-heavy");
+
+        verify(result);
+    }
+
+    private LoadHarness harness() {
+        return LoadHarness.target(port)
+                .clients(CLIENTS)
+                .warmupRequests(Math.max(REQUESTS / 10, CLIENTS))
+                .requests(REQUESTS);
+    }
+
+    private HttpRequest.Builder update(String baseUrl) {
+        long id = randomId();
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/" + id))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json("Load", "Update" + id, "update-" + id + "@load.com")));
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static void verify(LoadResult result) {
+        System.out.println(result.report());
+        assertThat(result.errors()).isZero();
+        BASELINE.assertNoRegression(result);
+    }
+
+    private long[] insert(String prefix, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(Employee.builder().firstName("Load").lastName(prefix + i).email(prefix + "-" + i + "@load.com").build());
+        }
+        return employeeRepository.batchInsert(employees).stream().mapToLong(Employee::getId).toArray();
+    }
+
+    private static String json(String firstName, String lastName, String email) {
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"" + lastName + "\",\"email\":\"" + email + "\"}";
+    }
+}
@@ -0,0 +1,70 @@
+package net.javaguides.springboot.performance;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeReadModel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+EmployeeReadModel 의 row 당 메모리와 적재 시간
+- 실제 heap 증가량이 estimatedBytes() (max-size 와 비교하는 추정값) 보다 크면 실패 - 추정값이 작으면 max-size 가 heap 을 지켜주지 못한다.
+- 적재 시간은 baseline(read-model.load) 과 비교한다. (DB scan 을 뺀 index 구성 시간)
+./mvnw -Pperformance test -Dtest=EmployeeReadModelPerformanceTests
+*/
+@Tag("performance")
+public class EmployeeReadModelPerformanceTests {
+
+    private static final int ROWS = Integer.getInteger("performance.read-model-rows", 200_000);
+
+    private static final PerformanceBaseline BASELINE = PerformanceBaseline.load();
+
+    @DisplayName("read model memory per row and load time")
+    @Test
+    public void givenRows_whenLoadReadModel_thenMemoryWithinEstimateAndLoadTimeWithinBaseline() {
+        // given - precondition or setup
+        Instant updatedAt = Instant.now();
+        EmployeeReadModel readModel = new EmployeeReadModel(null, null, null, null, true, DataSize.ofGigabytes(1));
+        long before = usedHeap();
+
+        // when - action or the behaviour that we are going test
+        long started = System.nanoTime();
+        readModel.load(LongStream.rangeClosed(1, ROWS).mapToObj(id -> Employee.builder()
+                .id(id)
+                .firstName("First" + id)
+                .lastName("Last" + (id % 1000))
+                .email("employee" + id + "@bench.com")
+                .version(0L)
+                .updatedAt(updatedAt)
+                .build()), ids -> List.of());
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+        long after = usedHeap();
+        Reference.reachabilityFence(readModel);
+
+        long measuredPerRow = (after - before) / ROWS;
+        long estimatedPerRow = readModel.estimatedBytes() / ROWS;
+        System.out.printf("read model : %d rows, measured %d bytes/row, estimated %d bytes/row, load %d ms%n",
+                ROWS, measuredPerRow, estimatedPerRow, loadMillis);
+
+        // then - verify the output
+        assertThat(readModel.size()).isEqualTo(ROWS);
+        assertThat(measuredPerRow).isLessThanOrEqualTo(estimatedPerRow);
+        BASELINE.assertNoRegression("read-model.load", loadMillis);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,99 @@
+package net.javaguides.springboot.performance;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+EmployeeSearchIndex 의 row 당 메모리, 적재 시간, 검색 latency
+- 실제 heap 증가량이 estimatedBytes() (max-size 와 비교하는 추정값) 보다 크면 실패
+- 검색 p99 가 10 ms 를 넘으면 실패 (prefix / infix / 여러 단어 / 결과 없음 검색을 섞어서 한 thread 에서 실행)
+- 적재 시간은 baseline(search-index.load) 과 비교한다. (DB scan 을 뺀 index 구성 시간)
+./mvnw -Pperformance test -Dtest=EmployeeSearchIndexPerformanceTests
+*/
+@Tag("performance")
+public class EmployeeSearchIndexPerformanceTests {
+
+    private static final int ROWS = Integer.getInteger("performance.search-rows", 1_000_000);
+
+    private static final int QUERIES = Integer.getInteger("performance.search-queries", 20_000);
+
+    private static final PerformanceBaseline BASELINE = PerformanceBaseline.load();
+
+    @DisplayName("search index memory per row, load time and query p99")
+    @Test
+    public void givenRows_whenLoadAndSearch_thenMemoryWithinEstimateAndP99UnderTenMillis() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(null, null, null, null, true, DataSize.ofGigabytes(4));
+        long before = usedHeap();
+
+        // when - action or the behaviour that we are going test
+        long started = System.nanoTime();
+        searchIndex.load(LongStream.rangeClosed(1, ROWS).mapToObj(id -> Employee.builder()
+                .id(id)
+                .firstName("First" + (id % 5000))
+                .lastName("Last" + (id % 1000))
+                .email("employee" + id + "@bench.com")
+                .build()), ids -> List.of());
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+        long after = usedHeap();
+
+        Random random = new Random(42);
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int id = 1 + random.nextInt(ROWS);
+            switch (i % 6) {
+                case 0: queries[i] = "f"; break;                                     // 한 글자 prefix
+                case 1: queries[i] = "first" + (id % 5000); break;                   // 이름 prefix
+                case 2: queries[i] = "employee" + id; break;                         // email local part prefix
+                case 3: queries[i] = String.valueOf(id); break;                      // email infix
+                case 4: queries[i] = "first" + (id % 50) + " last" + (id % 10); break; // 여러 단어
+                default: queries[i] = "nobody" + id; break;                          // 결과 없음
+            }
+        }
+        for (int i = 0; i < QUERIES; i++) { // warm-up (JIT)
+            searchIndex.search(queries[i], 10);
+        }
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            searchIndex.search(queries[i], 10);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Reference.reachabilityFence(searchIndex);
+
+        Arrays.sort(nanos);
+        double p99Millis = nanos[(int) (QUERIES * 0.99) - 1] / 1_000_000.0;
+        long measuredPerRow = (after - before) / ROWS;
+        long estimatedPerRow = searchIndex.estimatedBytes() / ROWS;
+        System.out.printf("search index : %d rows, measured %d bytes/row, estimated %d bytes/row, load %d ms,"
+                        + " p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                ROWS, measuredPerRow, estimatedPerRow, loadMillis,
+                nanos[QUERIES / 2] / 1_000_000.0, p99Millis, nanos[QUERIES - 1] / 1_000_000.0);
+
+        // then - verify the output
+        assertThat(searchIndex.size()).isEqualTo(ROWS);
+        assertThat(measuredPerRow).isLessThanOrEqualTo(estimatedPerRow);
+        assertThat(p99Millis).isLessThan(10.0);
+        BASELINE.assertNoRegression("search-index.load", loadMillis);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
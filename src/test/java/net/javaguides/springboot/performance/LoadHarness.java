@@ -0,0 +1,206 @@
+package net.javaguides.springboot.performance;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/*
+HTTP 부하 발생기 - 실제로 떠 있는 서버(RANDOM_PORT)에 동시 client 로 요청을 보내고 latency 를 HdrHistogram 에 기록한다.
+- client 는 virtual thread 하나씩 (java.net.http.HttpClient, HTTP/1.1) - 부하 발생기 자체가 병목이 되지 않게 한다.
+- operation 을 weight 비율로 섞어서 보낸다. (read-heavy, write-heavy ...)
+- warm-up 요청은 기록하지 않는다. (JIT, connection pool, cache)
+- 응답 상태가 operation 의 기대값이 아니거나 예외가 나면 error 로 센다.
+*/
+final class LoadHarness {
+
+    // 1 us ~ 1 분, 유효숫자 3자리
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String baseUrl;
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    private int totalWeight;
+
+    private int clients = 64;
+
+    private int warmupRequests = 1_000;
+
+    private int requests = 10_000;
+
+    private LoadHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    static LoadHarness target(int port) {
+        return new LoadHarness("http://localhost:" + port);
+    }
+
+    LoadHarness clients(int clients) {
+        this.clients = clients;
+        return this;
+    }
+
+    LoadHarness warmupRequests(int warmupRequests) {
+        this.warmupRequests = warmupRequests;
+        return this;
+    }
+
+    LoadHarness requests(int requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    // weight : 다른 operation 과의 상대 비율, expectedStatus : 성공으로 볼 응답 코드
+    LoadHarness operation(String name, int weight, RequestFactory requestFactory, IntPredicate expectedStatus) {
+        operations.add(new Operation(name, weight, requestFactory, expectedStatus));
+        totalWeight += weight;
+        return this;
+    }
+
+    LoadResult run(String workload) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        drive(httpClient, warmupRequests);
+
+        long start = System.nanoTime();
+        List<Worker> workers = drive(httpClient, requests);
+        long elapsedNanos = System.nanoTime() - start;
+
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        Map<String, Histogram> byOperation = new LinkedHashMap<>();
+        long errors = 0;
+        for (Operation operation : operations) {
+            byOperation.put(operation.name, new Histogram(MAX_LATENCY_MICROS, 3));
+        }
+        for (Worker worker : workers) {
+            errors += worker.errors;
+            for (int i = 0; i < operations.size(); i++) {
+                byOperation.get(operations.get(i).name).add(worker.histograms[i]);
+                total.add(worker.histograms[i]);
+            }
+        }
+        return new LoadResult(workload, requests, errors, elapsedNanos, total, byOperation);
+    }
+
+    // 요청 수를 client 들이 나눠서 처리한다. (남은 요청 수를 공유 counter 로 가져간다)
+    private List<Worker> drive(HttpClient httpClient, int count) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(count);
+        List<Worker> workers = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                Worker worker = new Worker(httpClient, remaining);
+                workers.add(worker);
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        return workers;
+    }
+
+    // weight 비율로 operation index 를 고른다.
+    private int pick() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < operations.size(); i++) {
+            value -= operations.get(i).weight;
+            if (value < 0) {
+                return i;
+            }
+        }
+        return operations.size() - 1;
+    }
+
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest.Builder create(String baseUrl);
+    }
+
+    private static final class Operation {
+
+        private final String name;
+
+        private final int weight;
+
+        private final RequestFactory requestFactory;
+
+        private final IntPredicate expectedStatus;
+
+        private Operation(String name, int weight, RequestFactory requestFactory, IntPredicate expectedStatus) {
+            this.name = name;
+            this.weight = weight;
+            this.requestFactory = requestFactory;
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final HttpClient httpClient;
+
+        private final AtomicInteger remaining;
+
+        private final Histogram[] histograms;
+
+        private long errors;
+
+        private Worker(HttpClient httpClient, AtomicInteger remaining) {
+            this.httpClient = httpClient;
+            this.remaining = remaining;
+            this.histograms = new Histogram[operations.size()];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram(MAX_LATENCY_MICROS, 3);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (remaining.getAndDecrement() > 0) {
+                int index = pick();
+                Operation operation = operations.get(index);
+                HttpRequest request = operation.requestFactory.create(baseUrl)
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (!operation.expectedStatus.test(response.statusCode())) {
+                        errors++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    errors++;
+                }
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                histograms[index].recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+            }
+        }
+    }
+}
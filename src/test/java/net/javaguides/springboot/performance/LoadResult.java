@@ -0,0 +1,64 @@
+package net.javaguides.springboot.performance;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+// LoadHarness 한 번 실행한 결과 - latency 는 microsecond 단위 HdrHistogram
+final class LoadResult {
+
+    private final String workload;
+
+    private final int requests;
+
+    private final long errors;
+
+    private final long elapsedNanos;
+
+    private final Histogram latency;
+
+    private final Map<String, Histogram> latencyByOperation;
+
+    LoadResult(String workload, int requests, long errors, long elapsedNanos, Histogram latency,
+               Map<String, Histogram> latencyByOperation) {
+        this.workload = workload;
+        this.requests = requests;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.latencyByOperation = latencyByOperation;
+    }
+
+    String workload() {
+        return workload;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    double throughput() {
+        return requests / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    // percentile : 0 ~ 100
+    double latencyMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    String report() {
+        StringBuilder builder = new StringBuilder(String.format(
+                "%s : %d requests, %d errors, %.0f req/s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                workload, requests, errors, throughput(),
+                latencyMillis(50), latencyMillis(99), latencyMillis(99.9), latency.getMaxValue() / 1000.0));
+        latencyByOperation.forEach((operation, histogram) -> builder.append(String.format(
+                "%n  %-12s %6d requests, p50 %.2f ms, p99 %.2f ms", operation, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0)));
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+}
@@ -0,0 +1,112 @@
+package net.javaguides.springboot.performance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/*
+performance test 결과를 저장된 baseline (src/test/resources/performance/baseline.properties) 과 비교한다.
+- <workload>.throughput (req/s) 가 baseline 보다 threshold 이상 낮거나
+- <workload>.p99 (ms) 가 baseline 보다 threshold 이상 높으면 실패
+- <name>.millis (context startup 처럼 한 번 걸리는 시간) 가 baseline 보다 threshold 이상 높으면 실패
+threshold 는 -Dperformance.regression-threshold=0.5 (50%, 기본값) 로 바꿀 수 있다. (공용 장비의 측정 편차를 고려한 기본값)
+baseline 에 없는 workload 는 비교하지 않는다.
+측정값은 매번 target/performance/baseline.properties 에 기록된다. - baseline 을 갱신하려면 이 파일을 복사한다.
+(baseline 은 측정한 장비 기준이므로 다른 장비에서는 먼저 갱신해야 한다.)
+*/
+final class PerformanceBaseline {
+
+    static final String THRESHOLD_PROPERTY = "performance.regression-threshold";
+
+    private static final String BASELINE_RESOURCE = "/performance/baseline.properties";
+
+    private static final Path MEASURED_FILE = Paths.get("target", "performance", "baseline.properties");
+
+    private final Properties baseline;
+
+    private final Properties measured = new Properties();
+
+    private final double threshold;
+
+    private PerformanceBaseline(Properties baseline, double threshold) {
+        this.baseline = baseline;
+        this.threshold = threshold;
+        // 다른 test class 가 먼저 기록한 측정값은 유지한다.
+        if (Files.exists(MEASURED_FILE)) {
+            try (InputStream in = Files.newInputStream(MEASURED_FILE)) {
+                measured.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static PerformanceBaseline load() {
+        Properties baseline = new Properties();
+        try (InputStream in = PerformanceBaseline.class.getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PerformanceBaseline(baseline, Double.parseDouble(System.getProperty(THRESHOLD_PROPERTY, "0.5")));
+    }
+
+    // 측정값을 기록하고 baseline 과 비교한다. 느려진 항목이 있으면 AssertionError
+    void assertNoRegression(LoadResult result) {
+        String workload = result.workload();
+        double throughput = result.throughput();
+        double p99 = result.latencyMillis(99);
+        record(workload + ".throughput", String.format("%.0f", throughput),
+                workload + ".p99", String.format("%.2f", p99));
+
+        List<String> regressions = new ArrayList<>();
+        String expectedThroughput = baseline.getProperty(workload + ".throughput");
+        if (expectedThroughput != null && throughput < Double.parseDouble(expectedThroughput) * (1 - threshold)) {
+            regressions.add(String.format("throughput %.0f req/s < baseline %s req/s", throughput, expectedThroughput));
+        }
+        String expectedP99 = baseline.getProperty(workload + ".p99");
+        if (expectedP99 != null && p99 > Double.parseDouble(expectedP99) * (1 + threshold)) {
+            regressions.add(String.format("p99 %.2f ms > baseline %s ms", p99, expectedP99));
+        }
+
+        if (!regressions.isEmpty()) {
+            throw new AssertionError(String.format("%s regressed more than %.0f%%: %s%n%s",
+                    workload, threshold * 100, String.join(", ", regressions), result.report()));
+        }
+    }
+
+    // 측정값(ms)을 기록하고 baseline 의 <name>.millis 와 비교한다. 느려졌으면 AssertionError
+    void assertNoRegression(String name, long millis) {
+        record(name + ".millis", String.valueOf(millis));
+
+        String expectedMillis = baseline.getProperty(name + ".millis");
+        if (expectedMillis != null && millis > Double.parseDouble(expectedMillis) * (1 + threshold)) {
+            throw new AssertionError(String.format("%s regressed more than %.0f%%: %d ms > baseline %s ms",
+                    name, threshold * 100, millis, expectedMillis));
+        }
+    }
+
+    // key, value 순서로 받는다.
+    private synchronized void record(String... keyValues) {
+        for (int i = 0; i < keyValues.length; i += 2) {
+            measured.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        try {
+            Files.createDirectories(MEASURED_FILE.getParent());
+            try (OutputStream out = Files.newOutputStream(MEASURED_FILE)) {
+                measured.store(out, "measured by performance tests");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.javaguides.springboot.performance;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+test profile(H2 in-memory DB) 로 application context 를 띄우는 시간 측정
+- cold : 이 JVM 에서 처음 띄우는 context (class loading, Hibernate bootstrap, schema 생성 포함) - 새 test JVM 의 첫 @SpringBootTest 비용
+- warm : 그 다음 context 들의 중간값 - context cache key 가 다른 test class 가 하나 늘 때마다 드는 비용
+두 값 모두 baseline(test-context.cold / test-context.warm) 과 비교한다. (PerformanceBaseline)
+다른 test 보다 먼저 실행되어야 cold 값이 의미가 있으므로 단독으로 실행한다.
+./mvnw -Pperformance test -Dtest=TestContextStartupPerformanceTests
+*/
+@Tag("performance")
+public class TestContextStartupPerformanceTests {
+
+    private static final int WARM_STARTS = Integer.getInteger("performance.context-starts", 5);
+
+    private static final PerformanceBaseline BASELINE = PerformanceBaseline.load();
+
+    @DisplayName("test context cold / warm startup time")
+    @Test
+    public void givenTestProfile_whenStartContext_thenStartupTimeWithinBaseline() {
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        long cold = start();
+        long[] warm = new long[WARM_STARTS];
+        for (int i = 0; i < WARM_STARTS; i++) {
+            warm[i] = start();
+        }
+        Arrays.sort(warm);
+        long warmMedian = warm[WARM_STARTS / 2];
+
+        System.out.printf("test context startup : cold %d ms, warm %d ms (median of %s)%n", cold, warmMedian, Arrays.toString(warm));
+
+        // then - verify the output
+        BASELINE.assertNoRegression("test-context.cold", cold);
+        BASELINE.assertNoRegression("test-context.warm", warmMedian);
+    }
+
+    // context 를 띄우고 DB 까지 사용할 수 있게 된 시간(ms)을 반환한다.
+    private long start() {
+        long started = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--logging.level.root=warn")) {
+            assertThat(context.getBean(EmployeeRepository.class).count()).isZero();
+            return (System.nanoTime() - started) / 1_000_000;
+        }
+    }
+}
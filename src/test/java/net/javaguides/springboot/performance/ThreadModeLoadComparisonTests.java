@@ -0,0 +1,83 @@
+package net.javaguides.springboot.performance;
+
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+platform thread(Tomcat 기본 thread pool) 모드와 virtual thread 모드 비교 부하 테스트
+- 각 모드로 애플리케이션을 RANDOM port 로 띄우고 (H2 in-memory DB) 1000 개의 동시 client 로 GET /api/employees/{id} 를 호출한다.
+- 두 모드 모두 id cache 를 끄고 매 요청마다 JDBC 를 호출한다.
+- LoadHarness 로 처리량과 latency 를 출력하고, 두 모드 모두 실패한 요청이 없는지 검증한다.
+- 두 모드 모두 같은 connection pool(50)에 묶이므로 처리량이 비슷해야 한다. 절대 수치는 장비에 따라 다르므로
+  virtual thread 모드가 platform thread 모드 처리량의 절반 아래로 떨어지지 않는지만 검증한다. (pinning 같은 회귀 확인용)
+./mvnw -Pperformance test -Dtest=ThreadModeLoadComparisonTests
+*/
+@Tag("performance")
+public class ThreadModeLoadComparisonTests {
+
+    private static final int CLIENTS = 1000;
+
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    private static final int TABLE_SIZE = 1000;
+
+    @DisplayName("platform thread vs virtual thread load comparison")
+    @Test
+    public void givenThousandConcurrentClients_whenGetEmployeeById_thenVirtualThreadsKeepUpWithPlatformThreads() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        System.out.println(platform.report());
+        System.out.println(virtual.report());
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(virtual.throughput()).isGreaterThanOrEqualTo(platform.throughput() * 0.5);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                employees.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email("load" + i + "@load.com").build());
+            }
+            long[] ids = context.getBean(EmployeeRepository.class).batchInsert(employees).stream()
+                    .mapToLong(Employee::getId).toArray();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            return LoadHarness.target(port)
+                    .clients(CLIENTS)
+                    .warmupRequests(CLIENTS)
+                    .requests(CLIENTS * REQUESTS_PER_CLIENT)
+                    .operation("get", 1, baseUrl -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/"
+                            + ids[ThreadLocalRandom.current().nextInt(ids.length)])), status -> status == 200)
+                    .run(virtualThreads ? "virtual-threads" : "platform-threads");
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--server.tomcat.accept-count=2000",
+                        "--employee.virtual-threads.enabled=" + virtualThreads,
+                        "--spring.cache.type=none",
+                        "--spring.datasource.hikari.maximum-pool-size=50",
+                        "--logging.level.root=warn");
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,7 +15,8 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest // @DataJpaTest annotation it internally uses in-memory database for testing.
-@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // Disable the in-memory(H2) database. and this by default will take MySQL.
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) // Disable the default in-memory(H2) replacement and use the configured DataSource.
+@ActiveProfiles("test") // configured DataSource = test profile 의 H2 (MySQL mode) - MySQL / Docker 없이 실행된다.
 public class EmployeeRepositoryIT {
 
     @Autowired
@@ -1,23 +1,43 @@
 package net.javaguides.springboot.repository;
 
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.support.StatementCounter;
+import net.javaguides.springboot.support.StatementCountingConfig;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @DataJpaTest
+@ActiveProfiles("test")
+@Import(StatementCountingConfig.class)
 public class EmployeeRepositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private Employee employee;
 
 
@@ -195,4 +215,268 @@ public class EmployeeRepositoryTests {
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
     }
+
+    // Junit test for keyset pagination query
+    @DisplayName("Junit test for keyset pagination query")
+    @Test
+    public void givenEmployeeList_whenFindPageAfter_thenReturnNextRowsOrderedById() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Latte")
+                .email("CoffeeLatte@coffee.com")
+                .build();
+
+        Employee employee3 = Employee.builder()
+                .firstName("Candy")
+                .lastName("Sweet")
+                .email("CandySweet@coffee.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+        employeeRepository.save(employee3);
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        List<Employee> page = employeeRepository.findPageAfter(employee.getId(), PageRequest.of(0, 1));
+
+        // then - verify the output
+        StatementCounter.assertSelectCount(1);
+        StatementCounter.assertStatementsAtMost(1);
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getId()).isEqualTo(employee2.getId());
+    }
+
+    // Junit test for streaming query (@DataJpaTest 는 트랜잭션 안에서 실행되므로 Stream 소비 가능)
+    @DisplayName("Junit test for streaming query")
+    @Test
+    public void givenEmployeeList_whenStreamAll_thenStreamEmployeesOrderedById() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Latte")
+                .email("CoffeeLatte@coffee.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+
+        // when - action or the behaviour that we are going test
+        List<Long> ids;
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            ids = employees.map(Employee::getId).collect(Collectors.toList());
+        }
+
+        // then - verify the output
+        assertThat(ids).containsExactly(employee.getId(), employee2.getId());
+    }
+
+    // Junit test for JDBC batch insert
+    @DisplayName("Junit test for JDBC batch insert")
+    @Test
+    public void givenEmployeeList_whenBatchInsert_thenAssignGeneratedIds() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Latte")
+                .email("CoffeeLatte@coffee.com")
+                .build();
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        List<Employee> savedEmployees = employeeRepository.batchInsert(List.of(employee, employee2));
+
+        // then - verify the output
+        StatementCounter.assertInsertCount(1); // row 수와 상관없이 executeBatch 한 번
+        StatementCounter.assertStatementsAtMost(1);
+        assertThat(savedEmployees).extracting(Employee::getId).allMatch(id -> id > 0);
+        assertThat(employeeRepository.findExistingEmails(List.of(employee.getEmail(), employee2.getEmail(), "none@coffee.com")))
+                .containsExactlyInAnyOrder(employee.getEmail(), employee2.getEmail());
+    }
+
+    // Junit test for JDBC batch insert - 중복 검사 이후 다른 요청이 같은 email 을 먼저 저장한 경우
+    @DisplayName("Junit test for JDBC batch insert with concurrently saved email")
+    @Test
+    public void givenConcurrentlySavedEmail_whenBatchInsert_thenSkipDuplicateRowOnly() {
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Coffee")
+                .lastName("Mocha")
+                .email("CoffeeMocha@coffee.com")
+                .build());
+        Employee duplicate = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Mocha")
+                .email("CoffeeMocha@coffee.com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Latte")
+                .email("CoffeeLatte@coffee.com")
+                .build();
+
+        // when - action or the behaviour that we are going test
+        List<Employee> savedEmployees = employeeRepository.batchInsert(List.of(employee, duplicate, employee2));
+
+        // then - verify the output
+        assertThat(savedEmployees).containsExactly(employee, employee2);
+        assertThat(savedEmployees).extracting(Employee::getId).allMatch(id -> id > 0);
+        assertThat(duplicate.getId()).isZero(); // 건너뛴 row 에는 id 를 채우지 않는다.
+        assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+
+    // Junit test for email unique index
+    @DisplayName("Junit test for email unique index")
+    @Test
+    public void givenExistingEmail_whenSaveAndFlush_thenThrowsDataIntegrityViolation() {
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee duplicate = Employee.builder()
+                .firstName("Hazel")
+                .lastName("Nut")
+                .email(employee.getEmail())
+                .build();
+
+        // when - action or the behaviour that we are going test
+        // then - verify the output
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> employeeRepository.saveAndFlush(duplicate));
+    }
+
+    // Junit test for list-returning name query (동명이인)
+    @DisplayName("Junit test for list-returning name query")
+    @Test
+    public void givenEmployeesWithSameName_whenFindAllByJPQL_thenReturnAllEmployees() {
+        // given - precondition or setup
+        Employee sameName = Employee.builder()
+                .firstName("Hazel")
+                .lastName("Tree")
+                .email("HazelTree2@coffee.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(sameName);
+
+        // when - action or the behaviour that we are going test
+        List<Employee> jpqlEmployees = employeeRepository.findAllByJPQL("Hazel", "Tree");
+        List<Employee> nativeEmployees = employeeRepository.findAllByNativeSQL("Hazel", "Tree");
+        Page<Employee> page = employeeRepository.findPageByJPQL("Hazel", "Tree", PageRequest.of(0, 1, Sort.by("id")));
+
+        // then - verify the output
+        assertThat(jpqlEmployees).extracting(Employee::getId).containsExactly(employee.getId(), sameName.getId());
+        assertThat(nativeEmployees).extracting(Employee::getId).containsExactly(employee.getId(), sameName.getId());
+        assertThat(page.getContent()).extracting(Employee::getId).containsExactly(employee.getId());
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    // Junit test for projection name query
+    @DisplayName("Junit test for projection name query")
+    @Test
+    public void givenFirstNameAndLastName_whenFindNameViews_thenReturnProjection() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeNameView> jpqlViews = employeeRepository.findNameViewsByJPQL("Hazel", "Tree");
+        List<EmployeeNameView> nativeViews = employeeRepository.findNameViewsByNativeSQL("Hazel", "Tree");
+        Page<EmployeeNameView> page = employeeRepository.findNameViewPageByJPQL("Hazel", "Tree", PageRequest.of(0, 10));
+
+        // then - verify the output
+        assertThat(jpqlViews).hasSize(1);
+        assertThat(jpqlViews.get(0).getId()).isEqualTo(employee.getId());
+        assertThat(jpqlViews.get(0).getFirstName()).isEqualTo("Hazel");
+        assertThat(nativeViews).extracting(EmployeeNameView::getLastName).containsExactly("Tree");
+        assertThat(page.getTotalElements()).isEqualTo(1);
+    }
+
+    // Junit test for single statement update with optimistic locking
+    @DisplayName("Junit test for single statement update")
+    @Test
+    public void givenEmployeeObject_whenUpdateById_thenUpdateRowAndIncrementVersion() {
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Long version = employee.getVersion();
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        int updatedRows = employeeRepository.updateById(employee.getId(), "Hazel", "Nut", "HazelNut@coffee.com", version, Instant.now());
+        int staleRows = employeeRepository.updateById(employee.getId(), "Hazel", "Stale", "HazelStale@coffee.com", version, Instant.now());
+        int missingRows = employeeRepository.updateById(employee.getId() + 100, "Hazel", "Nut", "missing@coffee.com", null, Instant.now());
+
+        // then - verify the output
+        StatementCounter.assertUpdateCount(3); // 호출마다 UPDATE 한 문장, 조회 없음
+        StatementCounter.assertStatementsAtMost(3);
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(staleRows).isZero();
+        assertThat(missingRows).isZero();
+        assertThat(updatedEmployee.getLastName()).isEqualTo("Nut");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(version + 1);
+    }
+
+    // Junit test for version-only queries (conditional GET)
+    @DisplayName("Junit test for version-only and page version queries")
+    @Test
+    public void givenEmployeeList_whenFindVersions_thenReturnVersionAndAggregate() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Latte")
+                .email("CoffeeLatte@coffee.com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.saveAndFlush(employee2);
+        employeeRepository.updateById(employee2.getId(), "Coffee", "Mocha", "CoffeeMocha@coffee.com", null, Instant.now());
+
+        // when - action or the behaviour that we are going test
+        Optional<Long> version = employeeRepository.findVersionById(employee2.getId());
+        Optional<Long> missingVersion = employeeRepository.findVersionById(employee2.getId() + 100);
+        List<EmployeeVersionView> page = employeeRepository.findVersionsAfter(employee.getId(), PageRequest.of(0, 10));
+
+        // then - verify the output
+        assertThat(version).contains(1L);
+        assertThat(missingVersion).isEmpty();
+        assertThat(page).extracting(EmployeeVersionView::getId).containsExactly(employee2.getId());
+        assertThat(page).extracting(EmployeeVersionView::getVersion).containsExactly(1L);
+        assertThat(employee.getUpdatedAt()).isNotNull();
+    }
+
+    // Junit test for sparse fieldset tuple queries
+    @DisplayName("Junit test for sparse fieldset queries")
+    @Test
+    public void givenEmployeeList_whenFindFields_thenSelectOnlyRequestedColumnsWithoutEntities() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Coffee")
+                .lastName("Latte")
+                .email("CoffeeLatte@coffee.com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.saveAndFlush(employee2);
+        testEntityManager.clear();
+        EnumSet<EmployeeField> fields = EnumSet.of(EmployeeField.EMAIL, EmployeeField.ID);
+
+        StatementCounter.reset();
+
+        // when - action or the behaviour that we are going test
+        List<Map<String, Object>> all = employeeRepository.findFieldsAfter(0L, 10, fields);
+        Optional<Map<String, Object>> one = employeeRepository.findFieldsById(employee2.getId(), fields);
+        Optional<Map<String, Object>> missing = employeeRepository.findFieldsById(employee2.getId() + 100, fields);
+        List<Map<String, Object>> some = employeeRepository.findFieldsByIdIn(List.of(employee.getId()), EnumSet.of(EmployeeField.LAST_NAME));
+
+        // then - verify the output
+        StatementCounter.assertSelectCount(4);
+        assertThat(StatementCounter.statements()).allSatisfy(sql ->
+                assertThat(sql).doesNotContain("first_name").doesNotContain("version").doesNotContain("updated_at"));
+        assertThat(all).extracting(row -> row.get("email")).containsExactly("HazelTree@coffee.com", "CoffeeLatte@coffee.com");
+        assertThat(one).contains(Map.of("id", employee2.getId(), "email", "CoffeeLatte@coffee.com"));
+        assertThat(one.get().keySet()).containsExactly("id", "email"); // EmployeeField 순서
+        assertThat(missing).isEmpty();
+        assertThat(some).containsExactly(Map.of("lastName", "Tree"));
+        // tuple 만 읽었으므로 persistence context 에 entity 가 없다.
+        assertThat(testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
 }
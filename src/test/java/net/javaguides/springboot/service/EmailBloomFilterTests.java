@@ -0,0 +1,59 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.service.impl.EmailBloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmailBloomFilterTests {
+
+    @DisplayName("Junit test for disabled filter")
+    @Test
+    public void givenDisabledFilter_whenMightContain_thenAlwaysTrue() {
+        // given - precondition or setup
+        EmailBloomFilter filter = new EmailBloomFilter(null, false, 1000, 0.01);
+
+        // when - action or the behaviour that we are going test
+        filter.load(Stream.of("HazelTree@coffee.com"));
+
+        // then - verify the output
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("new@coffee.com")).isTrue();
+    }
+
+    @DisplayName("Junit test for loaded filter without false negatives")
+    @Test
+    public void givenLoadedFilter_whenMightContain_thenNoFalseNegatives() {
+        // given - precondition or setup
+        EmailBloomFilter filter = new EmailBloomFilter(null, true, 10_000, 0.01);
+
+        // when - action or the behaviour that we are going test
+        long count = filter.load(IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@coffee.com"));
+        filter.put("added@coffee.com");
+
+        // then - verify the output
+        assertThat(count).isEqualTo(10_000);
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i + "@coffee.com"))).isTrue();
+        assertThat(filter.mightContain("added@coffee.com")).isTrue();
+    }
+
+    @DisplayName("Junit test for false positive rate")
+    @Test
+    public void givenLoadedFilter_whenMightContainUnknownEmails_thenFalsePositiveRateIsBounded() {
+        // given - precondition or setup
+        EmailBloomFilter filter = new EmailBloomFilter(null, true, 10_000, 0.01);
+        filter.load(IntStream.range(0, 10_000).mapToObj(i -> "user" + i + "@coffee.com"));
+
+        // when - action or the behaviour that we are going test
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@tea.com"))
+                .count();
+
+        // then - verify the output (목표 1% - 여유를 두고 3% 이하)
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,226 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.service.impl.EmployeeChangeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// outbox relay - relay thread 를 띄우지 않고 relay() 를 직접 호출한다.
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeServiceTests {
+
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    private EmployeeChangeServiceImpl employeeChangeService;
+
+    private final List<List<EmployeeChange>> published = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        employeeChangeService = new EmployeeChangeServiceImpl(employeeChangeRepository, 500, Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofMinutes(10),
+                2, Runnable::run);
+        employeeChangeService.subscribe((previousSeq, changes) -> published.add(changes));
+    }
+
+    @DisplayName("relay publishes contiguous changes in seq order")
+    @Test
+    public void givenContiguousChanges_whenRelay_thenPublishAllInOrder() {
+        // given - precondition or setup
+        given(employeeChangeRepository.findAfter(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(change(1, Instant.now()), change(2, Instant.now())));
+
+        // when - action or the behaviour that we are going test
+        int count = employeeChangeService.relay();
+
+        // then - verify the output
+        assertThat(count).isEqualTo(2);
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0)).extracting(EmployeeChange::getSeq).containsExactly(1L, 2L);
+    }
+
+    @DisplayName("relay stops at a recent seq gap - the transaction may not be committed yet")
+    @Test
+    public void givenRecentGap_whenRelay_thenPublishOnlyBeforeGap() {
+        // given - precondition or setup
+        given(employeeChangeRepository.findAfter(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(change(1, Instant.now()), change(3, Instant.now())));
+
+        // when - action or the behaviour that we are going test
+        int count = employeeChangeService.relay();
+
+        // then - verify the output
+        assertThat(count).isEqualTo(1);
+        assertThat(published.get(0)).extracting(EmployeeChange::getSeq).containsExactly(1L);
+    }
+
+    @DisplayName("relay skips a seq gap older than gap-timeout - the transaction was rolled back")
+    @Test
+    public void givenExpiredGap_whenRelay_thenSkipGap() {
+        // given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(employeeChangeRepository.findAfter(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(change(1, old), change(3, old)));
+
+        // when - action or the behaviour that we are going test
+        int count = employeeChangeService.relay();
+
+        // then - verify the output
+        assertThat(count).isEqualTo(2);
+        assertThat(published.get(0)).extracting(EmployeeChange::getSeq).containsExactly(1L, 3L);
+    }
+
+    @DisplayName("relay requeues a skipped seq that committed after gap-timeout")
+    @Test
+    public void givenSkippedSeqCommittedLate_whenRelay_thenRequeue() {
+        // given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(employeeChangeRepository.findAfter(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(change(1, old), change(3, old)));
+        employeeChangeService.relay();
+
+        EmployeeChange late = change(2, old);
+        given(employeeChangeRepository.findRange(eq(1L), eq(2L), any(Pageable.class))).willReturn(List.of(late));
+        given(employeeChangeRepository.requeue(List.of(late))).willReturn(1);
+        given(employeeChangeRepository.findAfter(eq(3L), any(Pageable.class))).willReturn(List.of(change(4, old)));
+
+        // when - action or the behaviour that we are going test
+        int count = employeeChangeService.relay();
+
+        // then - verify the output
+        verify(employeeChangeRepository).requeue(List.of(late));
+        assertThat(count).isEqualTo(1);
+        assertThat(published.get(1)).extracting(EmployeeChange::getSeq).containsExactly(4L);
+    }
+
+    @DisplayName("relay stops re-checking a skipped seq after gap-retention")
+    @Test
+    public void givenSkippedSeqOlderThanRetention_whenRelay_thenNotRechecked() {
+        // given - precondition or setup
+        employeeChangeService = new EmployeeChangeServiceImpl(employeeChangeRepository, 500, Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ZERO,
+                2, Runnable::run);
+        Instant old = Instant.now().minusSeconds(10);
+        given(employeeChangeRepository.findAfter(eq(0L), any(Pageable.class)))
+                .willReturn(List.of(change(1, old), change(3, old)));
+        employeeChangeService.relay();
+        given(employeeChangeRepository.findAfter(eq(3L), any(Pageable.class))).willReturn(List.of());
+
+        // when - action or the behaviour that we are going test
+        int count = employeeChangeService.relay();
+
+        // then - verify the output
+        assertThat(count).isZero();
+        verify(employeeChangeRepository, never()).findRange(anyLong(), anyLong(), any(Pageable.class));
+        verify(employeeChangeRepository, never()).requeue(any());
+    }
+
+    @DisplayName("a blocked subscriber does not hold up the relay or other subscribers")
+    @Test
+    public void givenBlockedSubscriber_whenRelay_thenOtherSubscriberReceivesChanges() throws Exception {
+        // given - precondition or setup
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        employeeChangeService = new EmployeeChangeServiceImpl(employeeChangeRepository, 500, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                Duration.ofMinutes(10), 2, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(1);
+        employeeChangeService.subscribe((previousSeq, changes) -> {
+            try {
+                release.await(); // socket 쓰기가 막힌 SSE 연결
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        employeeChangeService.subscribe((previousSeq, changes) -> received.countDown());
+        given(employeeChangeRepository.findAfter(eq(0L), any(Pageable.class))).willReturn(List.of(change(1, Instant.now())));
+
+        // when - action or the behaviour that we are going test
+        int count = employeeChangeService.relay();
+
+        // then - verify the output
+        assertThat(count).isEqualTo(1);
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @DisplayName("a subscriber that falls subscriber-queue-size batches behind is dropped")
+    @Test
+    public void givenSubscriberFallingBehind_whenRelay_thenDropSubscriber() {
+        // given - precondition or setup
+        List<Runnable> pending = new ArrayList<>(); // 전달 task 를 실행하지 않는다. (멈춘 구독자)
+        employeeChangeService = new EmployeeChangeServiceImpl(employeeChangeRepository, 500, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                Duration.ofMinutes(10), 2, pending::add);
+        AtomicBoolean dropped = new AtomicBoolean();
+        employeeChangeService.subscribe(new EmployeeChangeService.Listener() {
+            @Override
+            public void onChanges(long previousSeq, List<EmployeeChange> changes) {
+                published.add(changes);
+            }
+
+            @Override
+            public void onDropped() {
+                dropped.set(true);
+            }
+        });
+        for (long seq = 0; seq < 3; seq++) {
+            given(employeeChangeRepository.findAfter(eq(seq), any(Pageable.class))).willReturn(List.of(change(seq + 1, Instant.now())));
+        }
+
+        // when - action or the behaviour that we are going test
+        employeeChangeService.relay();
+        employeeChangeService.relay();
+        employeeChangeService.relay();
+        pending.forEach(Runnable::run);
+
+        // then - verify the output
+        assertThat(dropped).isTrue();
+        assertThat(published).isEmpty();
+    }
+
+    @DisplayName("getChanges does not query when nothing new has been published")
+    @Test
+    public void givenNothingPublished_whenGetChanges_thenEmptyWithoutQuery() {
+        // given - precondition or setup
+
+        // when - action or the behaviour that we are going test
+        List<EmployeeChange> changes = employeeChangeService.getChanges(0, 100);
+
+        // then - verify the output
+        assertThat(changes).isEmpty();
+        verifyNoInteractions(employeeChangeRepository);
+    }
+
+    private static EmployeeChange change(long seq, Instant changedAt) {
+        return EmployeeChange.builder()
+                .seq(seq)
+                .employeeId(seq)
+                .type(EmployeeChange.Type.CREATED)
+                .changedAt(changedAt)
+                .build();
+    }
+}
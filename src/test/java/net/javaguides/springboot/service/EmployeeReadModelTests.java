@@ -0,0 +1,237 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeReadModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeReadModelTests {
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("Junit test for lookups after load")
+    @Test
+    public void givenLoadedReadModel_whenFindByIdEmailAndName_thenReturnRows() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+
+        // when - action or the behaviour that we are going test
+        long count = readModel.load(Stream.of(
+                employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                employee(2, "Banana", "Kim", "banana@gmail.com"),
+                employee(3, "Banana", "Kim", "banana2@gmail.com")), ids -> List.of());
+
+        // then - verify the output
+        assertThat(count).isEqualTo(3);
+        assertThat(readModel.isReady()).isTrue();
+        assertThat(readModel.findById(1L)).map(Employee::getEmail).contains("HazelTree@coffee.com");
+        assertThat(readModel.findById(4L)).isEmpty();
+        assertThat(readModel.findByEmail("hazeltree@COFFEE.com")).map(Employee::getId).contains(1L);
+        assertThat(readModel.findByName("banana", "KIM")).extracting(Employee::getId).containsExactly(2L, 3L);
+    }
+
+    @DisplayName("Junit test for changes applied after load")
+    @Test
+    public void givenLoadedReadModel_whenChangesCommitted_thenIndexesFollow() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        readModel.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com")), ids -> List.of());
+
+        // when - action or the behaviour that we are going test
+        readModel.onChange(EmployeeChangeEvent.created(List.of(employee(2, "Banana", "Kim", "banana@gmail.com"))));
+        readModel.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Nut", "HazelNut@coffee.com")));
+        readModel.onChange(EmployeeChangeEvent.deleted(2L));
+
+        // then - verify the output
+        assertThat(readModel.findById(1L)).map(Employee::getLastName).contains("Nut");
+        assertThat(readModel.findByEmail("HazelTree@coffee.com")).isEmpty();
+        assertThat(readModel.findByEmail("HazelNut@coffee.com")).map(Employee::getId).contains(1L);
+        assertThat(readModel.findByName("Hazel", "Tree")).isEmpty();
+        assertThat(readModel.findById(2L)).isEmpty();
+        assertThat(readModel.findByEmail("banana@gmail.com")).isEmpty();
+        assertThat(readModel.size()).isEqualTo(1);
+    }
+
+    @DisplayName("Junit test for afterCommit callbacks arriving out of commit order")
+    @Test
+    public void givenTwoCommitsOfSameRow_whenAfterCommitRunsOutOfOrder_thenLaterCommitWins() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        readModel.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com")), ids -> List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        readModel.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "First", "first@coffee.com")));
+        readModel.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Second", "second@coffee.com")));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // when - action or the behaviour that we are going test (commit 순서 : first -> second, afterCommit 순서 : second -> first)
+        synchronizations.get(0).beforeCommit(false);
+        synchronizations.get(1).beforeCommit(false);
+        synchronizations.get(1).afterCommit();
+        synchronizations.get(0).afterCommit();
+
+        // then - verify the output
+        assertThat(readModel.findById(1L)).map(Employee::getLastName).contains("Second");
+        assertThat(readModel.findByEmail("first@coffee.com")).isEmpty();
+    }
+
+    @DisplayName("Junit test for changes committed while loading")
+    @Test
+    public void givenChangeCommittedDuringScan_whenLoad_thenChangedRowIsReread() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        List<Collection<Long>> rereads = new ArrayList<>();
+
+        // scan 이 id 1 을 읽은 뒤에 id 1 이 수정되고 id 2 가 삭제된다.
+        Stream<Employee> scan = Stream.of(
+                        employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                        employee(2, "Banana", "Kim", "banana@gmail.com"))
+                .peek(employee -> {
+                    if (employee.getId() == 2) {
+                        readModel.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Nut", "HazelNut@coffee.com")));
+                        readModel.onChange(EmployeeChangeEvent.deleted(2L));
+                    }
+                });
+
+        // when - action or the behaviour that we are going test
+        readModel.load(scan, ids -> {
+            rereads.add(new ArrayList<>(ids));
+            return List.of(employee(1, "Hazel", "Nut", "HazelNut@coffee.com"));
+        });
+
+        // then - verify the output
+        assertThat(rereads).hasSize(1);
+        assertThat(rereads.get(0)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(readModel.isReady()).isTrue();
+        assertThat(readModel.findById(1L)).map(Employee::getLastName).contains("Nut");
+        assertThat(readModel.findById(2L)).isEmpty();
+        assertThat(readModel.size()).isEqualTo(1);
+    }
+
+    @DisplayName("Junit test for changes from the change feed")
+    @Test
+    public void givenLoadedReadModel_whenFeedDeliversIds_thenRowsAreReread() {
+        // given - precondition or setup (다른 instance 가 id 1 을 수정하고 id 2 를 삭제, id 3 을 생성했다.)
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        readModel.load(Stream.of(
+                employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                employee(2, "Banana", "Kim", "banana@gmail.com")), ids -> List.of());
+
+        // when - action or the behaviour that we are going test
+        readModel.refresh(List.of(1L, 2L, 3L), ids -> List.of(
+                employee(1, "Hazel", "Nut", "HazelNut@coffee.com"),
+                employee(3, "Apple", "Kim", "apple@gmail.com")));
+
+        // then - verify the output
+        assertThat(readModel.findById(1L)).map(Employee::getLastName).contains("Nut");
+        assertThat(readModel.findByEmail("HazelTree@coffee.com")).isEmpty();
+        assertThat(readModel.findById(2L)).isEmpty();
+        assertThat(readModel.findByEmail("apple@gmail.com")).map(Employee::getId).contains(3L);
+        assertThat(readModel.size()).isEqualTo(2);
+    }
+
+    @DisplayName("Junit test for a change feed reread overtaken by a local commit")
+    @Test
+    public void givenLocalCommitDuringFeedReread_whenRereadArrives_thenLocalCommitWins() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        readModel.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com")), ids -> List.of());
+
+        // when - action or the behaviour that we are going test (다시 읽은 뒤, 반영하기 전에 이 instance 의 수정이 반영된다.)
+        readModel.refresh(List.of(1L), ids -> {
+            readModel.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Nut", "HazelNut@coffee.com")));
+            return List.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com"));
+        });
+
+        // then - verify the output
+        assertThat(readModel.findById(1L)).map(Employee::getLastName).contains("Nut");
+    }
+
+    @DisplayName("Junit test for tombstones of deleted rows")
+    @Test
+    public void givenDeletedRows_whenMoreRowsAreWrittenAndDeleted_thenTombstonesArePurged() {
+        // given - precondition or setup (삭제한 row 도 tombstone 만큼 추정 메모리에 포함된다.)
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        readModel.load(LongStream.rangeClosed(1, 2000)
+                .mapToObj(i -> employee(i, "First" + i, "Last" + i, "employee" + i + "@coffee.com")), ids -> List.of());
+        readModel.onChange(EmployeeChangeEvent.deleted(LongStream.rangeClosed(1, 2000).boxed().collect(Collectors.toList())));
+        long afterFirstDeletes = readModel.estimatedBytes();
+
+        // when - action or the behaviour that we are going test (같은 segment 에 쓸 때 반영이 끝난 tombstone 은 지워진다.)
+        for (long i = 2001; i <= 6000; i++) {
+            readModel.onChange(EmployeeChangeEvent.created(List.of(employee(i, "First" + i, "Last" + i, "employee" + i + "@coffee.com"))));
+            readModel.onChange(EmployeeChangeEvent.deleted(i));
+        }
+
+        // then - verify the output (지우지 않으면 tombstone 이 3 배로 늘어난다.)
+        assertThat(readModel.size()).isZero();
+        assertThat(afterFirstDeletes).isPositive();
+        assertThat(readModel.estimatedBytes()).isLessThan(2 * afterFirstDeletes);
+        assertThat(readModel.findById(6000L)).isEmpty();
+    }
+
+    @DisplayName("Junit test for memory budget")
+    @Test
+    public void givenTableLargerThanMaxSize_whenLoad_thenReadModelIsNotReady() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofKilobytes(100));
+
+        // when - action or the behaviour that we are going test
+        readModel.load(IntStream.rangeClosed(1, 1000)
+                .mapToObj(i -> employee(i, "First" + i, "Last" + i, "employee" + i + "@coffee.com")), ids -> List.of());
+
+        // then - verify the output
+        assertThat(readModel.isReady()).isFalse();
+    }
+
+    @DisplayName("Junit test for returned copies")
+    @Test
+    public void givenLoadedReadModel_whenCallerModifiesResult_thenReadModelIsUnchanged() {
+        // given - precondition or setup
+        EmployeeReadModel readModel = readModel(DataSize.ofMegabytes(64));
+        readModel.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com")), ids -> List.of());
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> found = readModel.findById(1L);
+        found.orElseThrow().setEmail("changed@coffee.com");
+
+        // then - verify the output
+        assertThat(readModel.findById(1L)).map(Employee::getEmail).contains("HazelTree@coffee.com");
+    }
+
+    private static EmployeeReadModel readModel(DataSize maxSize) {
+        return new EmployeeReadModel(null, null, null, null, true, maxSize);
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .version(0L)
+                .build();
+    }
+}
@@ -0,0 +1,235 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.event.EmployeeChangeEvent;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSearchIndexTests {
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @DisplayName("Junit test for ranking exact word, word prefix and infix matches")
+    @Test
+    public void givenLoadedIndex_whenSearch_thenRankExactThenPrefixThenInfix() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofMegabytes(64));
+        searchIndex.load(Stream.of(
+                employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                employee(2, "Hazelnut", "Kim", "nut@coffee.com"),
+                employee(3, "Banana", "Kim", "banana.hazel@gmail.com"),
+                employee(4, "Apple", "Kim", "apple@hazelcast.com")), ids -> List.of());
+
+        // when - action or the behaviour that we are going test
+        List<Long> hazel = searchIndex.search("HAZEL", 10);
+        List<Long> zel = searchIndex.search("zel", 10);
+
+        // then - verify the output
+        // hazel (1, 3 - email 의 단어) -> hazelnut (2) -> hazeltree 는 1 이 이미 있음 -> infix : @hazelcast (4)
+        assertThat(hazel).containsExactly(1L, 3L, 2L, 4L);
+        // 단어 prefix 가 없으면 infix (index 순서)
+        assertThat(zel).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(searchIndex.search("ha", 10)).containsExactly(1L, 3L, 2L);
+        assertThat(searchIndex.search("kim ban", 10)).containsExactly(3L);
+        assertThat(searchIndex.search("tree@coffee", 10)).containsExactly(1L);
+        assertThat(searchIndex.search("hazel", 2)).containsExactly(1L, 3L);
+        assertThat(searchIndex.search("nobody", 10)).isEmpty();
+        assertThat(searchIndex.search("  ", 10)).isEmpty();
+    }
+
+    @DisplayName("Junit test for changes applied after load")
+    @Test
+    public void givenLoadedIndex_whenChangesCommitted_thenSearchFollows() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofMegabytes(64));
+        searchIndex.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com")), ids -> List.of());
+
+        // when - action or the behaviour that we are going test
+        searchIndex.onChange(EmployeeChangeEvent.created(List.of(employee(2, "Banana", "Kim", "banana@gmail.com"))));
+        searchIndex.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Nut", "HazelNut@coffee.com")));
+        searchIndex.onChange(EmployeeChangeEvent.deleted(List.of(2L)));
+
+        // then - verify the output
+        assertThat(searchIndex.search("nut", 10)).containsExactly(1L);
+        assertThat(searchIndex.search("tree", 10)).isEmpty();
+        assertThat(searchIndex.search("banana", 10)).isEmpty();
+        assertThat(searchIndex.size()).isEqualTo(1);
+    }
+
+    @DisplayName("Junit test for afterCommit callbacks arriving out of commit order")
+    @Test
+    public void givenTwoCommitsOfSameRow_whenAfterCommitRunsOutOfOrder_thenLaterCommitWins() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofMegabytes(64));
+        searchIndex.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com")), ids -> List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        searchIndex.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "First", "first@coffee.com")));
+        searchIndex.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Second", "second@coffee.com")));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // when - action or the behaviour that we are going test (commit 순서 : first -> second, afterCommit 순서 : second -> first)
+        synchronizations.get(0).beforeCommit(false);
+        synchronizations.get(1).beforeCommit(false);
+        synchronizations.get(1).afterCommit();
+        synchronizations.get(0).afterCommit();
+
+        // then - verify the output
+        assertThat(searchIndex.search("second", 10)).containsExactly(1L);
+        assertThat(searchIndex.search("first", 10)).isEmpty();
+    }
+
+    @DisplayName("Junit test for changes committed while loading")
+    @Test
+    public void givenChangeCommittedDuringScan_whenLoad_thenChangedRowIsReread() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofMegabytes(64));
+        List<Collection<Long>> rereads = new ArrayList<>();
+
+        // scan 이 id 1 을 읽은 뒤에 id 1 이 수정된다.
+        Stream<Employee> scan = Stream.of(
+                        employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                        employee(2, "Banana", "Kim", "banana@gmail.com"))
+                .peek(employee -> {
+                    if (employee.getId() == 2) {
+                        searchIndex.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Nut", "HazelNut@coffee.com")));
+                    }
+                });
+
+        // when - action or the behaviour that we are going test
+        searchIndex.load(scan, ids -> {
+            rereads.add(new ArrayList<>(ids));
+            return List.of(employee(1, "Hazel", "Nut", "HazelNut@coffee.com"));
+        });
+
+        // then - verify the output
+        assertThat(rereads).containsExactly(List.of(1L));
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("nut", 10)).containsExactly(1L);
+        assertThat(searchIndex.search("tree", 10)).isEmpty();
+    }
+
+    @DisplayName("Junit test for compaction after many updates")
+    @Test
+    public void givenManyUpdates_whenDeadSlotsExceedLiveRows_thenCompactAndKeepResults() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofMegabytes(64));
+        searchIndex.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                employee(2, "Banana", "Kim", "banana@gmail.com")), ids -> List.of());
+        long loadedBytes = searchIndex.estimatedBytes();
+
+        // when - action or the behaviour that we are going test
+        for (int i = 0; i <= 1024; i++) { // 지운 slot 이 MIN_COMPACT_SLOTS(1024) 를 넘도록
+            searchIndex.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Tree" + (i % 10), "HazelTree@coffee.com")));
+        }
+
+        // then - verify the output
+        assertThat(searchIndex.estimatedBytes()).isLessThan(loadedBytes * 10);
+        assertThat(searchIndex.size()).isEqualTo(2);
+        assertThat(searchIndex.search("tree4", 10)).containsExactly(1L); // 마지막 수정 (1024 % 10)
+        assertThat(searchIndex.search("tree3", 10)).isEmpty();
+        assertThat(searchIndex.search("banana", 10)).containsExactly(2L);
+    }
+
+    @DisplayName("Junit test for writes applied while compaction runs")
+    @Test
+    public void givenCompactionInBackground_whenRowsChangeBeforeSwap_thenChangesAreReplayed() {
+        // given - precondition or setup (compact 는 실행하지 않고 모아 둔다.)
+        List<Runnable> compactions = new ArrayList<>();
+        EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(null, null, null, null, true, DataSize.ofMegabytes(64),
+                compactions::add);
+        searchIndex.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                employee(2, "Banana", "Kim", "banana@gmail.com"),
+                employee(3, "Apple", "Lee", "apple@gmail.com")), ids -> List.of());
+        for (int i = 0; i <= 1024; i++) {
+            searchIndex.onChange(EmployeeChangeEvent.updated(employee(1, "Hazel", "Tree" + (i % 10), "HazelTree@coffee.com")));
+        }
+        assertThat(compactions).hasSize(1);
+
+        // when - action or the behaviour that we are going test (compact 가 복사하는 동안 수정 / 삭제 / 생성이 반영된다.)
+        searchIndex.onChange(EmployeeChangeEvent.updated(employee(2, "Banana", "Park", "banana@gmail.com")));
+        searchIndex.onChange(EmployeeChangeEvent.deleted(3L));
+        searchIndex.onChange(EmployeeChangeEvent.created(List.of(employee(4, "Cherry", "Choi", "cherry@gmail.com"))));
+        compactions.get(0).run();
+        searchIndex.onChange(EmployeeChangeEvent.updated(employee(4, "Cherry", "Jung", "cherry@gmail.com")));
+
+        // then - verify the output
+        assertThat(searchIndex.size()).isEqualTo(3);
+        assertThat(searchIndex.search("tree4", 10)).containsExactly(1L);
+        assertThat(searchIndex.search("park", 10)).containsExactly(2L);
+        assertThat(searchIndex.search("kim", 10)).isEmpty();
+        assertThat(searchIndex.search("apple", 10)).isEmpty();
+        assertThat(searchIndex.search("jung", 10)).containsExactly(4L);
+        assertThat(searchIndex.search("choi", 10)).isEmpty();
+    }
+
+    @DisplayName("Junit test for tombstones of deleted rows")
+    @Test
+    public void givenManyCreatedAndDeletedRows_whenCompacted_thenTombstonesArePurged() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofMegabytes(64));
+        searchIndex.load(Stream.of(employee(1, "Hazel", "Tree", "HazelTree@coffee.com"),
+                employee(2, "Banana", "Kim", "banana@gmail.com")), ids -> List.of());
+        long loadedBytes = searchIndex.estimatedBytes();
+
+        // when - action or the behaviour that we are going test (지운 slot 이 MIN_COMPACT_SLOTS(1024) 가 되면 compact)
+        for (long i = 3; i < 3 + 1024; i++) {
+            searchIndex.onChange(EmployeeChangeEvent.created(List.of(employee(i, "Apple", "Kim" + i, "apple" + i + "@gmail.com"))));
+            searchIndex.onChange(EmployeeChangeEvent.deleted(i));
+        }
+
+        // then - verify the output (tombstone 1024 개가 남아 있으면 적재한 크기의 몇 배가 된다.)
+        assertThat(searchIndex.size()).isEqualTo(2);
+        assertThat(searchIndex.estimatedBytes()).isLessThan(loadedBytes * 2);
+        assertThat(searchIndex.search("apple", 10)).isEmpty();
+        assertThat(searchIndex.search("hazel", 10)).containsExactly(1L);
+    }
+
+    @DisplayName("Junit test for memory budget")
+    @Test
+    public void givenTableLargerThanMaxSize_whenLoad_thenIndexIsNotReady() {
+        // given - precondition or setup
+        EmployeeSearchIndex searchIndex = searchIndex(DataSize.ofKilobytes(100));
+
+        // when - action or the behaviour that we are going test
+        searchIndex.load(IntStream.rangeClosed(1, 1000)
+                .mapToObj(i -> employee(i, "First" + i, "Last" + i, "employee" + i + "@coffee.com")), ids -> List.of());
+
+        // then - verify the output
+        assertThat(searchIndex.isReady()).isFalse();
+        assertThat(searchIndex.size()).isZero();
+    }
+
+    private static EmployeeSearchIndex searchIndex(DataSize maxSize) {
+        return new EmployeeSearchIndex(null, null, null, null, true, maxSize, Runnable::run);
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .version(0L)
+                .build();
+    }
+}
@@ -0,0 +1,167 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmailBloomFilter;
+import net.javaguides.springboot.service.impl.EmployeeReadModel;
+import net.javaguides.springboot.service.impl.EmployeeSearchIndex;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// cache annotation 은 Spring proxy 를 통해서만 동작하므로 EmployeeServiceImpl 과 cache 설정만 올려서 테스트한다.
+// repository 는 mock - DB 없이 실행된다.
+@SpringBootTest(classes = {CacheConfig.class, EmployeeServiceImpl.class, EmailBloomFilter.class, EmployeeReadModel.class,
+        EmployeeSearchIndex.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class EmployeeServiceCacheTests {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    // EmployeeReadModel / EmployeeSearchIndex 는 꺼져 있다. (employee.read-model.enabled 기본값) - getEmployeeById 는 cache 를 거친다.
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(CacheConfig.EMPLOYEE_CACHE).clear();
+
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Hazel")
+                .lastName("Tree")
+                .email("HazelTree@coffee.com")
+                .build();
+    }
+
+    @DisplayName("Junit test for getEmployeeById cache hit")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeByIdTwice_thenQueryDatabaseOnce() {
+        // given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action or the behaviour that we are going test
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> cachedEmployee = employeeService.getEmployeeById(1L);
+
+        // then - verify the output
+        assertThat(cachedEmployee).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @DisplayName("Junit test for getEmployeeById cache eviction on update")
+    @Test
+    public void givenCachedEmployee_whenUpdateEmployee_thenNextGetReadsDatabase() {
+        // given - precondition or setup
+        Employee updatedEmployee = Employee.builder()
+                .id(1L)
+                .firstName("Hazel")
+                .lastName("Nut")
+                .email("HazelNut@coffee.com")
+                .version(0L)
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee), Optional.of(updatedEmployee));
+        given(employeeRepository.updateById(eq(1L), eq("Hazel"), eq("Nut"), eq("HazelNut@coffee.com"), eq(0L), any(Instant.class)))
+                .willReturn(1);
+        employeeService.getEmployeeById(1L);
+
+        // when - action or the behaviour that we are going test
+        employeeService.updateEmployee(1L, updatedEmployee);
+        Optional<Employee> reloadedEmployee = employeeService.getEmployeeById(1L);
+
+        // then - verify the output
+        assertThat(reloadedEmployee).contains(updatedEmployee);
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    @DisplayName("Junit test for getEmployeeById cache eviction on delete")
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenNextGetReadsDatabase() {
+        // given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee), Optional.empty());
+        given(employeeRepository.deleteRowById(1L)).willReturn(1);
+        employeeService.getEmployeeById(1L);
+
+        // when - action or the behaviour that we are going test
+        employeeService.deleteEmployee(1L);
+        Optional<Employee> deletedEmployee = employeeService.getEmployeeById(1L);
+
+        // then - verify the output
+        assertThat(deletedEmployee).isEmpty();
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    @DisplayName("Junit test for getEmployeesByIds sharing the getEmployeeById cache")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeesByIds_thenQueryOnlyMissingIdsAndCacheThem() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().id(2L).firstName("Banana").lastName("Kim").email("banana@gmail.com").build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.findAllByIdIn(List.of(2L, 3L))).willReturn(List.of(employee2));
+        employeeService.getEmployeeById(1L);
+
+        // when - action or the behaviour that we are going test
+        EmployeeLookupResult result = employeeService.getEmployeesByIds(List.of(2L, 1L, 3L));
+        Optional<Employee> cachedEmployee2 = employeeService.getEmployeeById(2L);
+
+        // then - verify the output
+        assertThat(result.getEmployees()).containsExactly(employee2, employee);
+        assertThat(result.getNotFound()).containsExactly(3L);
+        assertThat(cachedEmployee2).contains(employee2);
+        verify(employeeRepository, times(1)).findAllByIdIn(List.of(2L, 3L));
+        verify(employeeRepository, never()).findById(2L);
+    }
+
+    @DisplayName("Junit test for getEmployeeById not caching missing employee")
+    @Test
+    public void givenMissingEmployee_whenSaveEmployee_thenNextGetReadsDatabase() {
+        // given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty(), Optional.of(employee));
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willReturn(employee);
+        employeeService.getEmployeeById(1L);
+
+        // when - action or the behaviour that we are going test
+        employeeService.saveEmployee(employee);
+        Optional<Employee> savedEmployee = employeeService.getEmployeeById(1L);
+
+        // then - verify the output
+        assertThat(savedEmployee).contains(employee);
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+}
@@ -1,8 +1,18 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.EmployeeBatchResult;
+import net.javaguides.springboot.dto.EmployeeDeleteResult;
+import net.javaguides.springboot.dto.EmployeeLookupResult;
+import net.javaguides.springboot.dto.EmployeePage;
+import net.javaguides.springboot.event.EmployeeChangeEvent;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeField;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmailBloomFilter;
+import net.javaguides.springboot.service.impl.EmployeeReadModel;
+import net.javaguides.springboot.service.impl.EmployeeSearchIndex;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.DisplayName;
@@ -10,13 +20,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.BDDMockito.given;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
@@ -26,6 +50,28 @@ public class EmployeeServiceTests {
     @Mock // We can use @Mock to create and inject mocked instances without having to call Mockito.mock manually
     private EmployeeRepository employeeRepository; // @Mock 어노테이션 사용 -> employeeRepository = mock(EmployeeRepository.class); 주석처리
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // mock 의 isReady() 는 false - 기존처럼 repository 에서 조회한다.
+    @Mock
+    private EmployeeReadModel employeeReadModel;
+
+    // mock 의 getCache() 는 null - cache 없이 repository 에서 조회한다. (cache 동작은 EmployeeServiceCacheTests)
+    @Mock
+    private CacheManager cacheManager;
+
+    // mock 의 isReady() 는 false - 검색은 Optional.empty() (503)
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    // filter 가 꺼진 상태 - mightContain() 이 항상 true 이므로 기존처럼 findByEmail 로 중복 검사한다.
+    @Spy
+    private EmailBloomFilter emailBloomFilter = new EmailBloomFilter(null, false, 1000, 0.01);
+
 //    private EmployeeService employeeService; // 주석 -> employeeService = new EmployeeServiceImpl(employeeRepository); 주석처리
     @InjectMocks // @InjectMocks creates the mock object of the class and injects the mocks that are marked with the annotations @Mock into it.
     private EmployeeServiceImpl employeeService;
@@ -72,6 +118,10 @@ public class EmployeeServiceTests {
 
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
+        // repository 호출 budget : 중복 검사 1번 + 저장 1번 (EmployeeControllerITests 의 statement budget 과 같다)
+        verify(employeeRepository, times(1)).findByEmail(employee.getEmail());
+        verify(employeeRepository, times(1)).save(employee);
+        verifyNoMoreInteractions(employeeRepository);
     }
 
     // Junit test for saveEmployee method
@@ -103,6 +153,78 @@ public class EmployeeServiceTests {
         // verify(mock, never()).method(param); - 해당 Mock Object의 메소드가 호출이 안됬는지 검증
     }
 
+    // Junit test for saveEmployee method with email bloom filter
+    @DisplayName("Junit test for saveEmployee method which skips duplicate check for new email")
+    @Test
+    public void givenNewEmailInBloomFilter_whenSaveEmployee_thenSkipFindByEmail() {
+        // given - precondition or setup
+        EmailBloomFilter enabledFilter = new EmailBloomFilter(employeeRepository, true, 1000, 0.01);
+        enabledFilter.load(Stream.of("ChrisEvans@gmail.com"));
+        EmployeeServiceImpl service = new EmployeeServiceImpl(employeeRepository, entityManager, enabledFilter, eventPublisher,
+                employeeReadModel, cacheManager, employeeSearchIndex);
+        given(employeeRepository.save(employee)).willReturn(employee);
+
+        // when - action or the behaviour that we are going test
+        Employee savedEmployee = service.saveEmployee(employee);
+
+        // then - verify the output
+        assertThat(savedEmployee).isNotNull();
+        assertThat(enabledFilter.mightContain(employee.getEmail())).isTrue();
+        verify(employeeRepository, never()).findByEmail(anyString());
+    }
+
+    // Junit test for saveEmployees method (batch)
+    @DisplayName("Junit test for saveEmployees method")
+    @Test
+    public void givenEmployeeList_whenSaveEmployees_thenInsertNewAndReportDuplicates() {
+        // given - precondition or setup
+        Employee newEmployee = Employee.builder().firstName("Chris").lastName("Evans").email("ChrisEvans@gmail.com").build();
+        Employee existingEmployee = Employee.builder().firstName("Hazel").lastName("Tree").email("HazelTree@coffee.com").build();
+        Employee duplicateInRequest = Employee.builder().firstName("Chris").lastName("Pratt").email("ChrisEvans@gmail.com").build();
+
+        // 이미 저장되어 있는 email 은 IN 쿼리 한 번으로 찾는다.
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(List.of(existingEmployee.getEmail()));
+        given(employeeRepository.batchInsert(List.of(newEmployee))).willAnswer((invocation) -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.get(0).setId(10L);
+            return employees;
+        });
+
+        // when - action or the behaviour that we are going test
+        EmployeeBatchResult result = employeeService.saveEmployees(List.of(newEmployee, existingEmployee, duplicateInRequest));
+
+        // then - verify the output
+        assertThat(result.getCreated()).containsExactly(newEmployee);
+        assertThat(result.getCreated().get(0).getId()).isEqualTo(10L);
+        assertThat(result.getFailed()).extracting(EmployeeBatchResult.Failure::getIndex).containsExactly(1, 2);
+        verify(employeeRepository, never()).findByEmail(anyString()); // row 마다 findByEmail 을 호출하지 않는다.
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    // Junit test for saveEmployees method - batchInsert 가 건너뛴 row (동시에 저장된 email)
+    @DisplayName("Junit test for saveEmployees method with concurrently saved email")
+    @Test
+    public void givenEmailSavedConcurrently_whenSaveEmployees_thenReportSkippedRow() {
+        // given - precondition or setup
+        Employee newEmployee = Employee.builder().firstName("Chris").lastName("Evans").email("ChrisEvans@gmail.com").build();
+        Employee raced = Employee.builder().firstName("Hazel").lastName("Tree").email("HazelTree@coffee.com").build();
+
+        // IN 쿼리 시점에는 없었지만 insert 시점에는 다른 요청이 먼저 저장했다.
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(List.of());
+        given(employeeRepository.batchInsert(List.of(newEmployee, raced))).willAnswer((invocation) -> {
+            newEmployee.setId(10L);
+            return List.of(newEmployee);
+        });
+
+        // when - action or the behaviour that we are going test
+        EmployeeBatchResult result = employeeService.saveEmployees(List.of(newEmployee, raced));
+
+        // then - verify the output
+        assertThat(result.getCreated()).containsExactly(newEmployee);
+        assertThat(result.getFailed()).extracting(EmployeeBatchResult.Failure::getIndex).containsExactly(1);
+        assertThat(result.getFailed().get(0).getReason()).isEqualTo("Employee already exist with given email:HazelTree@coffee.com");
+    }
+
     // Junit test for getAllEmployees method
     @DisplayName("Junit test for getAllEmployees method")
     @Test
@@ -146,6 +268,59 @@ public class EmployeeServiceTests {
         assertThat(employeeList).isEmpty();
     }
 
+    // Junit test for getEmployeesAfter method (keyset pagination)
+    @DisplayName("Junit test for getEmployeesAfter method")
+    @Test
+    public void givenMoreRowsThanLimit_whenGetEmployeesAfter_thenReturnPageWithNextCursor() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Chris").lastName("Evans").email("ChrisEvans@gmail.com").build();
+        Employee employee2 = Employee.builder().id(3L).firstName("Tom").lastName("Holland").email("TomHolland@gmail.com").build();
+
+        // limit + 1 건을 조회해서 다음 페이지 존재 여부를 판단한다.
+        given(employeeRepository.findPageAfter(eq(0L), any(Pageable.class))).willReturn(List.of(employee, employee1, employee2));
+
+        // when - action or the behaviour that we are going test
+        EmployeePage<Employee> page = employeeService.getEmployeesAfter(0L, 2);
+
+        // then - verify the output
+        assertThat(page.getContent()).containsExactly(employee, employee1);
+        assertThat(page.getNextCursor()).isEqualTo(employee1.getId());
+    }
+
+    // Junit test for getEmployeesAfter method (last page)
+    @DisplayName("Junit test for getEmployeesAfter method (last page)")
+    @Test
+    public void givenFewerRowsThanLimit_whenGetEmployeesAfter_thenReturnPageWithoutNextCursor() {
+        // given - precondition or setup
+        given(employeeRepository.findPageAfter(eq(0L), any(Pageable.class))).willReturn(List.of(employee));
+
+        // when - action or the behaviour that we are going test
+        EmployeePage<Employee> page = employeeService.getEmployeesAfter(0L, 2);
+
+        // then - verify the output
+        assertThat(page.getContent()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // Junit test for exportEmployees method
+    @DisplayName("Junit test for exportEmployees method")
+    @Test
+    public void givenEmployeeStream_whenExportEmployees_thenConsumeAndDetachEachEmployee() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Chris").lastName("Evans").email("ChrisEvans@gmail.com").build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee1));
+        List<Employee> exported = new ArrayList<>();
+
+        // when - action or the behaviour that we are going test
+        long count = employeeService.exportEmployees(exported::add);
+
+        // then - verify the output
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).containsExactly(employee, employee1);
+        verify(entityManager, times(1)).detach(employee);
+        verify(entityManager, times(1)).detach(employee1);
+    }
+
     // Junit test for getEmployeeById method
     @DisplayName("Junit test for getEmployeeById method")
     @Test
@@ -159,38 +334,313 @@ public class EmployeeServiceTests {
         assertThat(savedEmployee).isNotNull();
     }
 
-    // Junit test for updateEmployee method
-    @DisplayName("Junit test for updateEmployee method")
+    // Junit test for getEmployeeById method with loaded read model
+    @DisplayName("Junit test for getEmployeeById method served by read model")
     @Test
-    public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+    public void givenReadyReadModel_whenGetEmployeeById_thenDoNotQueryRepository() {
         // given - precondition or setup
-        given(employeeRepository.save(employee)).willReturn(employee);
-        employee.setEmail("apple@gmail.com");
-        employee.setFirstName("banana");
+        given(employeeReadModel.isReady()).willReturn(true);
+        given(employeeReadModel.findById(1L)).willReturn(Optional.of(employee));
 
         // when - action or the behaviour that we are going test
-        Employee updatedEmployee = employeeService.updateEmployee(employee);
+        Optional<Employee> savedEmployee = employeeService.getEmployeeById(1L);
 
         // then - verify the output
-        assertThat(updatedEmployee.getEmail()).isEqualTo("apple@gmail.com");
-        assertThat(updatedEmployee.getFirstName()).isEqualTo("banana");
+        assertThat(savedEmployee).contains(employee);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // Junit test for getEmployeeByEmail / getEmployeesByName methods with loaded read model
+    @DisplayName("Junit test for email and name lookups served by read model")
+    @Test
+    public void givenReadyReadModel_whenGetEmployeeByEmailAndName_thenDoNotQueryRepository() {
+        // given - precondition or setup
+        given(employeeReadModel.isReady()).willReturn(true);
+        given(employeeReadModel.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeReadModel.findByName(employee.getFirstName(), employee.getLastName())).willReturn(List.of(employee));
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> byEmail = employeeService.getEmployeeByEmail(employee.getEmail());
+        List<Employee> byName = employeeService.getEmployeesByName(employee.getFirstName(), employee.getLastName());
+
+        // then - verify the output
+        assertThat(byEmail).contains(employee);
+        assertThat(byName).containsExactly(employee);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // Junit test for getEmployeesByIds method - chunked IN (...) queries
+    @DisplayName("Junit test for getEmployeesByIds method")
+    @Test
+    public void givenIds_whenGetEmployeesByIds_thenQueryInChunksAndKeepRequestOrder() {
+        // given - precondition or setup (chunk 2 개 + 중복 id, 1001 은 없는 id, repository 는 역순으로 돌려준다.)
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1500; id >= 1; id--) {
+            ids.add(id);
+        }
+        ids.add(1500L);
+        given(employeeRepository.findAllByIdIn(anyCollection())).willAnswer(invocation -> {
+            List<Employee> rows = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (id != 1001) {
+                    rows.add(0, Employee.builder().id(id).firstName("First" + id).lastName("Last" + id).build());
+                }
+            }
+            return rows;
+        });
+
+        // when - action or the behaviour that we are going test
+        EmployeeLookupResult result = employeeService.getEmployeesByIds(ids);
+
+        // then - verify the output
+        assertThat(result.getEmployees()).hasSize(1499);
+        assertThat(result.getEmployees().get(0).getId()).isEqualTo(1500L);
+        assertThat(result.getEmployees().get(1498).getId()).isEqualTo(1L);
+        assertThat(result.getNotFound()).containsExactly(1001L);
+        verify(employeeRepository, times(2)).findAllByIdIn(anyCollection());
+    }
+
+    // Junit test for getEmployeesByIds method with loaded read model
+    @DisplayName("Junit test for getEmployeesByIds method served by read model")
+    @Test
+    public void givenReadyReadModel_whenGetEmployeesByIds_thenDoNotQueryRepository() {
+        // given - precondition or setup
+        given(employeeReadModel.isReady()).willReturn(true);
+        given(employeeReadModel.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeReadModel.findById(2L)).willReturn(Optional.empty());
+
+        // when - action or the behaviour that we are going test
+        EmployeeLookupResult result = employeeService.getEmployeesByIds(List.of(2L, 1L));
+
+        // then - verify the output
+        assertThat(result.getEmployees()).containsExactly(employee);
+        assertThat(result.getNotFound()).containsExactly(2L);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // Junit test for searchEmployees method
+    @DisplayName("Junit test for searchEmployees method")
+    @Test
+    public void givenReadySearchIndex_whenSearchEmployees_thenReturnEmployeesInRankOrder() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Hazelnut").lastName("Kim").email("nut@coffee.com").build();
+        given(employeeSearchIndex.isReady()).willReturn(true);
+        given(employeeSearchIndex.search("hazel", 50)).willReturn(List.of(2L, 1L));
+        given(employeeRepository.findAllByIdIn(List.of(2L, 1L))).willReturn(List.of(employee, employee1));
+
+        // when - action or the behaviour that we are going test (limit 은 MAX_SEARCH_RESULTS 로 줄인다.)
+        Optional<List<Employee>> found = employeeService.searchEmployees("hazel", 1000);
+
+        // then - verify the output
+        assertThat(found).contains(List.of(employee1, employee));
+    }
+
+    // Junit test for searchEmployees method before the index is loaded
+    @DisplayName("Junit test for searchEmployees method without search index")
+    @Test
+    public void givenSearchIndexNotReady_whenSearchEmployees_thenReturnEmpty() {
+        // given - precondition or setup (mock 의 isReady() 는 false)
+
+        // when - action or the behaviour that we are going test
+        Optional<List<Employee>> found = employeeService.searchEmployees("hazel", 10);
+
+        // then - verify the output
+        assertThat(found).isEmpty();
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // Junit test for searchEmployees method with sparse fieldset
+    @DisplayName("Junit test for searchEmployees method with fields")
+    @Test
+    public void givenFields_whenSearchEmployees_thenSelectIdForOrderingAndReturnOnlyRequestedFields() {
+        // given - precondition or setup
+        given(employeeSearchIndex.isReady()).willReturn(true);
+        given(employeeSearchIndex.search("hazel", 10)).willReturn(List.of(2L, 1L));
+        given(employeeRepository.findFieldsByIdIn(List.of(2L, 1L), EnumSet.of(EmployeeField.ID, EmployeeField.EMAIL)))
+                .willReturn(List.of(row(1L, "HazelTree@coffee.com"), row(2L, "nut@coffee.com")));
+
+        // when - action or the behaviour that we are going test
+        Optional<List<Map<String, Object>>> found = employeeService.searchEmployees("hazel", 10, EnumSet.of(EmployeeField.EMAIL));
+
+        // then - verify the output
+        // index 순서대로, 요청하지 않은 id 는 빠진다.
+        assertThat(found).contains(List.of(Map.of("email", "nut@coffee.com"), Map.of("email", "HazelTree@coffee.com")));
+        verify(employeeRepository, never()).findAllByIdIn(any());
+    }
+
+    private static Map<String, Object> row(long id, String email) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("email", email);
+        return row;
+    }
+
+    // Junit test for updateEmployee(id, employee) method - single UPDATE statement
+    @DisplayName("Junit test for updateEmployee by id method")
+    @Test
+    public void givenEmployeeId_whenUpdateEmployeeById_thenReturnUpdatedEmployeeWithoutSelect() {
+        // given - precondition or setup
+        employee.setVersion(2L);
+        given(employeeRepository.updateById(eq(1L), eq("Hazel"), eq("Tree"), eq("HazelTree@coffee.com"), eq(2L), any(Instant.class))).willReturn(1);
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        assertThat(updatedEmployee).isPresent();
+        assertThat(updatedEmployee.get().getId()).isEqualTo(1L);
+        assertThat(updatedEmployee.get().getVersion()).isEqualTo(3L);
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    // Junit test for updateEmployee(id, employee) method without version - version 만 다시 읽는다.
+    @DisplayName("Junit test for updateEmployee by id method without version")
+    @Test
+    public void givenNoVersion_whenUpdateEmployeeById_thenReturnAndPublishIncrementedVersion() {
+        // given - precondition or setup
+        given(employeeRepository.updateById(eq(1L), eq("Hazel"), eq("Tree"), eq("HazelTree@coffee.com"), isNull(), any(Instant.class))).willReturn(1);
+        given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(5L));
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        ArgumentCaptor<EmployeeChangeEvent> event = ArgumentCaptor.forClass(EmployeeChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(updatedEmployee).map(Employee::getVersion).contains(5L);
+        assertThat(event.getValue().getEmployees()).extracting(Employee::getVersion).containsExactly(5L);
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    // Junit test for updateEmployee(id, employee) method - missing id
+    @DisplayName("Junit test for updateEmployee by id method (not found)")
+    @Test
+    public void givenMissingEmployeeId_whenUpdateEmployeeById_thenReturnEmpty() {
+        // given - precondition or setup
+        given(employeeRepository.updateById(eq(1L), eq("Hazel"), eq("Tree"), eq("HazelTree@coffee.com"), isNull(), any(Instant.class))).willReturn(0);
+
+        // when - action or the behaviour that we are going test
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        assertThat(updatedEmployee).isEmpty();
+    }
+
+    // Junit test for updateEmployee(id, employee) method - stale version
+    @DisplayName("Junit test for updateEmployee by id method which throws optimistic locking exception")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployeeById_thenThrowsException() {
+        // given - precondition or setup
+        employee.setVersion(2L);
+        given(employeeRepository.updateById(eq(1L), eq("Hazel"), eq("Tree"), eq("HazelTree@coffee.com"), eq(2L), any(Instant.class))).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        // when - action or the behaviour that we are going test
+        // then - verify the output
+        org.junit.jupiter.api.Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> employeeService.updateEmployee(1L, employee));
     }
 
     // Junit test for deleteEmployee method
     @DisplayName("Junit test for deleteEmployee method")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
+    public void givenEmployeeId_whenDeleteEmployee_thenDeleteWithoutSelect() {
         // given - precondition or setup
-        // willDoNothing() : the mock will not return anything
         long employeeId = 1L;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteRowById(employeeId)).willReturn(1);
 
         // when - action or the behaviour that we are going test
-        employeeService.deleteEmployee(employeeId);
+        boolean deleted = employeeService.deleteEmployee(employeeId);
 
         // then - verify the output
         // verify() : Mockito verify() method can be used to test number of method invocations(=메서드 호출 수)
-        // return 값이 없기 때문에 메서드 호출 수 확인
-        verify(employeeRepository, times(1)).deleteById(employeeId); // 1번 호출되었는지 검증
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, times(1)).deleteRowById(employeeId); // 1번 호출되었는지 검증
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    // Junit test for deleteEmployee method with missing id
+    @DisplayName("Junit test for deleteEmployee method with missing id")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturnFalseWithoutEvent() {
+        // given - precondition or setup
+        given(employeeRepository.deleteRowById(1L)).willReturn(0);
+
+        // when - action or the behaviour that we are going test
+        boolean deleted = employeeService.deleteEmployee(1L);
+
+        // then - verify the output
+        assertThat(deleted).isFalse();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // Junit test for deleteEmployees method - chunked IN (...) deletes
+    @DisplayName("Junit test for deleteEmployees method")
+    @Test
+    public void givenIds_whenDeleteEmployees_thenDeleteInChunksAndReportNotFound() {
+        // given - precondition or setup (chunk 2 개 + 중복 id, 1001 은 없는 id)
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        given(employeeRepository.findExistingIds(anyCollection())).willAnswer(invocation -> {
+            List<Long> existing = new ArrayList<>(invocation.<Collection<Long>>getArgument(0));
+            existing.remove(Long.valueOf(1001));
+            return existing;
+        });
+        given(employeeRepository.deleteRowsByIds(anyCollection()))
+                .willAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+
+        // when - action or the behaviour that we are going test
+        EmployeeDeleteResult result = employeeService.deleteEmployees(ids);
+
+        // then - verify the output
+        assertThat(result.getDeleted()).isEqualTo(1499);
+        assertThat(result.getNotFound()).containsExactly(1001L);
+        verify(employeeRepository, times(2)).findExistingIds(anyCollection());
+        verify(employeeRepository, times(2)).deleteRowsByIds(anyCollection());
+
+        ArgumentCaptor<EmployeeChangeEvent> event = ArgumentCaptor.forClass(EmployeeChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(EmployeeChange.Type.DELETED);
+        assertThat(event.getValue().getEmployees()).hasSize(1499);
+    }
+
+    // Junit test for change event (outbox) of deleteEmployee method
+    @DisplayName("deleteEmployee publishes a DELETED change event")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenPublishDeletedEvent() {
+        // given - precondition or setup
+        long employeeId = 1L;
+        given(employeeRepository.deleteRowById(employeeId)).willReturn(1);
+
+        // when - action or the behaviour that we are going test
+        employeeService.deleteEmployee(employeeId);
+
+        // then - verify the output
+        ArgumentCaptor<EmployeeChangeEvent> event = ArgumentCaptor.forClass(EmployeeChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(EmployeeChange.Type.DELETED);
+        assertThat(event.getValue().getEmployees()).extracting(Employee::getId).containsExactly(employeeId);
+    }
+
+    // Junit test for change event (outbox) of saveEmployee method
+    @DisplayName("saveEmployee publishes a CREATED change event with the saved employee")
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenPublishCreatedEvent() {
+        // given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willReturn(employee);
+
+        // when - action or the behaviour that we are going test
+        employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        ArgumentCaptor<EmployeeChangeEvent> event = ArgumentCaptor.forClass(EmployeeChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(EmployeeChange.Type.CREATED);
+        assertThat(event.getValue().getEmployees()).containsExactly(employee);
     }
 }
@@ -0,0 +1,221 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.service.impl.EmailBloomFilter;
+import net.javaguides.springboot.service.impl.ReactiveEmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveEmployeeServiceTests {
+
+    @Mock
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Spy
+    private EmailBloomFilter emailBloomFilter = new EmailBloomFilter(null, false, 1000, 0.01);
+
+    @InjectMocks
+    private ReactiveEmployeeServiceImpl employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Hazel")
+                .lastName("Tree")
+                .email("HazelTree@coffee.com")
+                .build();
+    }
+
+    @DisplayName("Junit test for reactive saveEmployee method")
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenEmitSavedEmployee() {
+        // given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Mono.empty());
+        given(employeeRepository.insert(employee)).willReturn(Mono.just(employee));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> savedEmployee = employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        StepVerifier.create(savedEmployee)
+                .expectNext(employee)
+                .verifyComplete();
+    }
+
+    @DisplayName("Junit test for reactive saveEmployee method which emits error")
+    @Test
+    public void givenExistingEmail_whenSaveEmployee_thenEmitError() {
+        // given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Mono.just(employee));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> savedEmployee = employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        StepVerifier.create(savedEmployee)
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(employeeRepository, never()).insert(any(Employee.class));
+    }
+
+    @DisplayName("Junit test for reactive saveEmployee method when a concurrent insert wins the email unique index")
+    @Test
+    public void givenEmailUniqueIndexViolation_whenSaveEmployee_thenEmitDuplicateEmailError() {
+        // given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Mono.empty());
+        given(employeeRepository.insert(employee)).willReturn(Mono.error(new DataIntegrityViolationException("insert failed",
+                new IllegalStateException("Duplicate entry 'HazelTree@coffee.com' for key 'employees.UK_EMPLOYEES_EMAIL'"))));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> savedEmployee = employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        StepVerifier.create(savedEmployee)
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @DisplayName("Junit test for reactive saveEmployee method which passes through other integrity violations")
+    @Test
+    public void givenOtherIntegrityViolation_whenSaveEmployee_thenEmitOriginalError() {
+        // given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Mono.empty());
+        given(employeeRepository.insert(employee)).willReturn(Mono.error(new DataIntegrityViolationException("insert failed",
+                new IllegalStateException("Column 'first_name' cannot be null"))));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> savedEmployee = employeeService.saveEmployee(employee);
+
+        // then - verify the output
+        StepVerifier.create(savedEmployee)
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @DisplayName("Junit test for reactive getAllEmployees method with backpressure")
+    @Test
+    public void givenEmployeesFlux_whenGetAllEmployees_thenEmitOnDemand() {
+        // given - precondition or setup
+        Employee employee1 = Employee.builder().id(2L).firstName("Kim").lastName("Tree").email("kim@coffee.com").build();
+        given(employeeRepository.findAll()).willReturn(Flux.just(employee, employee1));
+
+        // when - action or the behaviour that we are going test
+        Flux<Employee> employees = employeeService.getAllEmployees();
+
+        // then - verify the output : 요청(request)한 만큼만 흘러나온다.
+        StepVerifier.create(employees, 1)
+                .expectNext(employee)
+                .thenRequest(1)
+                .expectNext(employee1)
+                .verifyComplete();
+    }
+
+    @DisplayName("Junit test for reactive updateEmployee method with stale version")
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenEmitOptimisticLockingFailure() {
+        // given - precondition or setup
+        employee.setVersion(3L);
+        given(employeeRepository.updateById(eq(1L), eq(employee.getFirstName()), eq(employee.getLastName()), eq(employee.getEmail()), eq(3L), any(Instant.class)))
+                .willReturn(Mono.just(0));
+        given(employeeRepository.existsById(1L)).willReturn(Mono.just(true));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        StepVerifier.create(updatedEmployee)
+                .expectError(ObjectOptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    @DisplayName("Junit test for reactive updateEmployee method with missing id")
+    @Test
+    public void givenMissingId_whenUpdateEmployee_thenEmitNothing() {
+        // given - precondition or setup
+        given(employeeRepository.updateById(eq(1L), eq(employee.getFirstName()), eq(employee.getLastName()), eq(employee.getEmail()), isNull(), any(Instant.class)))
+                .willReturn(Mono.just(0));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        StepVerifier.create(updatedEmployee)
+                .verifyComplete();
+    }
+
+    @DisplayName("Junit test for reactive updateEmployee method without version - version 만 다시 읽는다.")
+    @Test
+    public void givenNoVersion_whenUpdateEmployee_thenEmitDatabaseVersion() {
+        // given - precondition or setup
+        given(employeeRepository.updateById(eq(1L), eq(employee.getFirstName()), eq(employee.getLastName()), eq(employee.getEmail()), isNull(), any(Instant.class)))
+                .willReturn(Mono.just(1));
+        given(employeeRepository.findVersionById(1L)).willReturn(Mono.just(4L));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        StepVerifier.create(updatedEmployee)
+                .expectNextMatches(updated -> updated.getVersion() == 4L)
+                .verifyComplete();
+    }
+
+    @DisplayName("Junit test for reactive updateEmployee method with an email owned by another employee")
+    @Test
+    public void givenEmailUniqueIndexViolation_whenUpdateEmployee_thenEmitDuplicateEmailError() {
+        // given - precondition or setup
+        given(employeeRepository.updateById(eq(1L), eq(employee.getFirstName()), eq(employee.getLastName()), eq(employee.getEmail()), isNull(), any(Instant.class)))
+                .willReturn(Mono.error(new DataIntegrityViolationException("update failed",
+                        new IllegalStateException("Duplicate entry 'HazelTree@coffee.com' for key 'employees.UK_EMPLOYEES_EMAIL'"))));
+
+        // when - action or the behaviour that we are going test
+        Mono<Employee> updatedEmployee = employeeService.updateEmployee(1L, employee);
+
+        // then - verify the output
+        StepVerifier.create(updatedEmployee)
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    @DisplayName("Junit test for reactive deleteEmployee method with missing id")
+    @Test
+    public void givenMissingId_whenDeleteEmployee_thenEmitFalse() {
+        // given - precondition or setup
+        given(employeeRepository.deleteById(1L)).willReturn(Mono.just(0));
+
+        // when - action or the behaviour that we are going test
+        Mono<Boolean> deleted = employeeService.deleteEmployee(1L);
+
+        // then - verify the output
+        StepVerifier.create(deleted)
+                .expectNext(false)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,101 @@
+package net.javaguides.springboot.support;
+
+import net.javaguides.springboot.service.impl.EmployeeChangeServiceImpl;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+테스트에서 실행된 SQL statement 수를 세고 검증하는 helper (StatementCountingConfig 로 DataSource 에 연결)
+- N+1, 중복 SELECT, merge-before-update 같은 회귀를 "이 API 는 statement N 개 이하" 로 고정한다.
+- JDBC batch(executeBatch) 는 row 수와 상관없이 statement 하나로 센다.
+- thread 별로 나누지 않는다. (StreamingResponseBody 처럼 다른 스레드에서 실행되는 query 도 포함)
+  단, 요청과 상관없이 실행되는 outbox relay 의 조회와 구독자(read model / 검색 index 의 다시 읽기)의 query 는 세지 않는다.
+
+StatementCounter.reset();
+mockMvc.perform(post("/api/employees")...);
+StatementCounter.assertStatementsAtMost(2);
+*/
+public class StatementCounter implements QueryExecutionListener {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    public static void reset() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    public static void assertStatementsAtMost(int max) {
+        List<String> statements = statements();
+        if (statements.size() > max) {
+            throw new AssertionError(describe("Expected at most " + max + " statements", statements));
+        }
+    }
+
+    public static void assertSelectCount(int expected) {
+        assertCount("select", expected);
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertCount("insert", expected);
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertCount("update", expected);
+    }
+
+    public static void assertDeleteCount(int expected) {
+        assertCount("delete", expected);
+    }
+
+    private static void assertCount(String type, int expected) {
+        List<String> statements = statements();
+        long actual = statements.stream().filter(sql -> type.equals(typeOf(sql))).count();
+        if (actual != expected) {
+            throw new AssertionError(describe("Expected " + expected + " " + type + " statements but was " + actual, statements));
+        }
+    }
+
+    private static String typeOf(String sql) {
+        String trimmed = sql.trim();
+        int end = trimmed.indexOf(' ');
+        return (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+    }
+
+    private static String describe(String message, List<String> statements) {
+        StringBuilder builder = new StringBuilder(message).append(", executed ").append(statements.size()).append(':');
+        for (String sql : statements) {
+            builder.append(System.lineSeparator()).append("  ").append(sql);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String thread = Thread.currentThread().getName();
+        if (EmployeeChangeServiceImpl.RELAY_THREAD_NAME.equals(thread)
+                || thread.startsWith(EmployeeChangeServiceImpl.DELIVERY_THREAD_NAME)) {
+            return;
+        }
+        synchronized (STATEMENTS) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                STATEMENTS.add(queryInfo.getQuery());
+            }
+        }
+    }
+}
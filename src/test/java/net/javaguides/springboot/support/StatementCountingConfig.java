@@ -0,0 +1,30 @@
+package net.javaguides.springboot.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+// @Import(StatementCountingConfig.class) - 테스트 context 의 DataSource 를 StatementCounter 가 붙은 proxy 로 감싼다.
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementCountingConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // read/write routing proxy 는 감싸지 않는다. (primary / replica 에서 한 번만 센다.)
+                if (!(bean instanceof DataSource) || bean instanceof DelegatingDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(new StatementCounter())
+                        .build();
+            }
+        };
+    }
+}